@@ -0,0 +1,195 @@
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 관측 처리량 기반 에이전트 배분 비율 조정
+ *
+ * - 에이전트가 청크를 끝낼 때마다 처리량(건/초)과 건당 지연시간을 EWMA로 갱신한다.
+ * - 배분 비율은 처리량에 비례하되, 설정 비율(ALLOCATION.JSON)의 minFactor~maxFactor배 안으로 제한한다.
+ *   (한 에이전트가 느려져도 배분이 0이 되거나 한쪽으로 쏠리지 않고 정책 근처에 머묾)
+ * - 다음 청크를 받을 에이전트는 현재 비율을 가중치로 한 Smooth Weighted Round Robin으로 고른다.
+ * - 비율이 마지막 기록보다 logThreshold 이상 바뀌면 변경 내용을 출력한다.
+ * 모든 에이전트가 한 번 이상 측정되기 전까지는 설정 비율을 그대로 사용한다.
+ */
+public class AdaptiveAllocator {
+
+	// 에이전트 하나의 설정/측정 상태
+	static final class Agent {
+		final String name;
+		final double configuredShare;
+		final double minShare;
+		final double maxShare;
+		double throughput;      // EWMA 건/초 (0이면 아직 측정 없음)
+		double latencyNanos;    // EWMA 건당 나노초
+		double share;           // 현재 배분 비율
+		double loggedShare;     // 마지막으로 출력한 비율
+		double currentWeight;   // SWRR 현재 가중치
+
+		Agent(String name, double configuredShare, double minFactor, double maxFactor) {
+			this.name = name;
+			this.configuredShare = configuredShare;
+			this.minShare = configuredShare * minFactor;
+			this.maxShare = Math.min(1, configuredShare * maxFactor);
+			this.share = configuredShare;
+			this.loggedShare = configuredShare;
+		}
+	}
+
+	private final List<Agent> agents = new ArrayList<>();
+	private final double alpha;
+	private final double logThreshold;
+
+	public AdaptiveAllocator(Map<String, Integer> allocations) {
+		this(allocations, 0.3, 0.5, 2.0, 0.02);
+	}
+
+	/**
+	 * alpha: EWMA 가중치 (클수록 최근 측정 반영이 빠름)
+	 * minFactor/maxFactor: 설정 비율 대비 허용 범위 (예: 0.5, 2.0 → 30%는 15%~60%)
+	 * logThreshold: 변경 출력 기준 (비율 차이, 예: 0.02 = 2%p)
+	 */
+	public AdaptiveAllocator(Map<String, Integer> allocations, double alpha, double minFactor, double maxFactor,
+			double logThreshold) {
+		this.alpha = alpha;
+		this.logThreshold = logThreshold;
+		double total = 0;
+		for (int count : allocations.values()) {
+			total += count;
+		}
+		for (Map.Entry<String, Integer> entry : allocations.entrySet()) {
+			agents.add(new Agent(entry.getKey(), entry.getValue() / total, minFactor, maxFactor));
+		}
+	}
+
+	/**
+	 * 청크 처리 결과 반영 (jobs건을 nanos 동안 처리)
+	 */
+	public synchronized void record(String agentName, int jobs, long nanos) {
+		Agent agent = find(agentName);
+		if (agent == null || jobs <= 0) {
+			return;
+		}
+		double seconds = Math.max(nanos, 1) / 1e9;
+		double rate = jobs / seconds;
+		double latency = (double) Math.max(nanos, 1) / jobs;
+		if (agent.throughput == 0) {
+			agent.throughput = rate;
+			agent.latencyNanos = latency;
+		} else {
+			agent.throughput += alpha * (rate - agent.throughput);
+			agent.latencyNanos += alpha * (latency - agent.latencyNanos);
+		}
+		recompute();
+	}
+
+	/**
+	 * 다음 청크를 받을 에이전트 (현재 비율 가중치의 Smooth Weighted Round Robin)
+	 */
+	public synchronized String next() {
+		Agent selected = null;
+		for (Agent agent : agents) {
+			agent.currentWeight += agent.share;
+			if (selected == null || agent.currentWeight > selected.currentWeight) {
+				selected = agent;
+			}
+		}
+		selected.currentWeight -= 1; // 비율 합계
+		return selected.name;
+	}
+
+	/**
+	 * 현재 배분 비율 (설정 순서, 합계 1)
+	 */
+	public synchronized Map<String, Double> shares() {
+		Map<String, Double> shares = new LinkedHashMap<>();
+		for (Agent agent : agents) {
+			shares.put(agent.name, agent.share);
+		}
+		return shares;
+	}
+
+	/**
+	 * 현재 상태 요약 (에이전트별 설정/현재 비율, 처리량, 건당 지연시간)
+	 */
+	public synchronized String describe() {
+		StringBuilder sb = new StringBuilder();
+		for (Agent agent : agents) {
+			sb.append(String.format("%s: 설정 %.1f%%, 현재 %.1f%%, 처리량 %.1f건/s, 지연 %.2f ms%n", agent.name,
+					agent.configuredShare * 100, agent.share * 100, agent.throughput, agent.latencyNanos / 1e6));
+		}
+		return sb.toString();
+	}
+
+	private Agent find(String name) {
+		for (Agent agent : agents) {
+			if (agent.name.equals(name)) {
+				return agent;
+			}
+		}
+		return null;
+	}
+
+	// 처리량 비례 비율을 범위 안으로 제한하며 재계산 (범위에 걸린 에이전트를 고정하고 나머지를 다시 나눔)
+	private void recompute() {
+		for (Agent agent : agents) {
+			if (agent.throughput == 0) {
+				return; // 측정 안 된 에이전트가 있으면 설정 비율 유지
+			}
+		}
+		int n = agents.size();
+		double[] shares = new double[n];
+		boolean[] fixed = new boolean[n];
+		for (int round = 0; round < n + 1; round++) {
+			double fixedSum = 0;
+			double freeRate = 0;
+			for (int i = 0; i < n; i++) {
+				if (fixed[i]) {
+					fixedSum += shares[i];
+				} else {
+					freeRate += agents.get(i).throughput;
+				}
+			}
+			boolean changed = false;
+			for (int i = 0; i < n; i++) {
+				if (fixed[i]) {
+					continue;
+				}
+				Agent agent = agents.get(i);
+				shares[i] = (1 - fixedSum) * agent.throughput / freeRate;
+				if (shares[i] < agent.minShare) {
+					shares[i] = agent.minShare;
+					fixed[i] = true;
+					changed = true;
+				} else if (shares[i] > agent.maxShare) {
+					shares[i] = agent.maxShare;
+					fixed[i] = true;
+					changed = true;
+				}
+			}
+			if (!changed) {
+				break;
+			}
+		}
+
+		double sum = 0;
+		for (double share : shares) {
+			sum += share;
+		}
+		boolean log = false;
+		for (int i = 0; i < n; i++) {
+			Agent agent = agents.get(i);
+			agent.share = shares[i] / sum; // 모두 범위에 걸린 경우에도 합계 1 유지
+			log |= Math.abs(agent.share - agent.loggedShare) >= logThreshold;
+		}
+		if (log) {
+			StringBuilder sb = new StringBuilder("[배분 변경]");
+			for (Agent agent : agents) {
+				sb.append(String.format(" %s %.1f%%→%.1f%%", agent.name, agent.loggedShare * 100, agent.share * 100));
+				agent.loggedShare = agent.share;
+			}
+			System.out.println(sb);
+		}
+	}
+}
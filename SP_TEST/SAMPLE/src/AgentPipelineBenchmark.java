@@ -0,0 +1,118 @@
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 에이전트 결과 처리 비교: 문자열 경로(결과마다 문자열 생성 + ArrayList 보관 후 println) vs
+ * 기본형 경로(int 배열 청크를 스트리밍하고 출력 대상에서 바이트로 바로 기록)
+ *
+ * 사용법: java -Xmx2g AgentPipelineBenchmark [작업 수(기본 5000000)] [반복 횟수(기본 3)] [처리 시간 간격(기본 1000)]
+ * 배분은 A:50%, B:30%, C:20%, 출력은 버리는 스트림으로 보내 디스크/콘솔 속도는 제외한다.
+ * 두 경로 모두 작업 번호가 간격의 배수인 작업마다 1 ms 처리 시간을 둔다 (0이면 처리 시간 없음).
+ * 처리 시간이 있어야 기본형 경로의 작업 순서 출력(ORDERED)이 에이전트를 기다리게 하는지 드러난다.
+ * 힙 최대 사용량과 GC 횟수/시간을 함께 출력한다.
+ */
+public class AgentPipelineBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int jobCount = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+		int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+		int costEvery = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+		ThreadDistributedWorker.JobCost cost = (agent, job) -> costEvery > 0 && job % costEvery == 0 ? 1 : 0;
+		Map<String, Integer> allocations = BenchmarkSupport.allocations(jobCount);
+		int[] jobs = BenchmarkSupport.jobs(jobCount);
+
+		System.out.printf("작업 %,d건, %d회 반복, 처리 시간 %s%n", jobCount, rounds,
+				costEvery > 0 ? String.format("%,d건마다 1 ms", costEvery) : "없음");
+		for (int r = 0; r < rounds; r++) {
+			measure("문자열 경로", () -> runStrings(allocations, jobs, cost));
+			measure("기본형 경로", () -> runPrimitive(allocations, jobs, cost));
+		}
+	}
+
+	interface Run {
+		void run() throws Exception;
+	}
+
+	private static void measure(String name, Run run) throws Exception {
+		System.gc();
+		List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				pool.resetPeakUsage();
+				heapPools.add(pool);
+			}
+		}
+		long gcCount = 0;
+		long gcMillis = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			gcCount -= gc.getCollectionCount();
+			gcMillis -= gc.getCollectionTime();
+		}
+		long start = System.nanoTime();
+		run.run();
+		long elapsed = System.nanoTime() - start;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			gcCount += gc.getCollectionCount();
+			gcMillis += gc.getCollectionTime();
+		}
+		long peak = 0;
+		for (MemoryPoolMXBean pool : heapPools) {
+			peak += pool.getPeakUsage().getUsed();
+		}
+		System.out.printf("%s: %,6d ms, 힙 최대 %,5d MB, GC %d회 %,d ms%n", name,
+				TimeUnit.NANOSECONDS.toMillis(elapsed), peak >> 20, gcCount, gcMillis);
+	}
+
+	// 변경 전 ThreadDistributedWorker와 같은 처리: 에이전트별 Callable이 결과 문자열 목록을 만들고, 모두 끝난 뒤 출력
+	private static void runStrings(Map<String, Integer> allocations, int[] jobs, ThreadDistributedWorker.JobCost cost)
+			throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		PrintStream out = new PrintStream(BenchmarkSupport.nullOutput(), false, "UTF-8");
+		int offset = 0;
+		List<Future<List<String>>> futures = new ArrayList<>();
+		for (Map.Entry<String, Integer> entry : allocations.entrySet()) {
+			String agent = entry.getKey();
+			int[] subJobs = Arrays.copyOfRange(jobs, offset, offset + entry.getValue());
+			Callable<List<String>> task = () -> {
+				List<String> results = new ArrayList<>();
+				for (int job : subJobs) {
+					int result = ThreadDistributedWorker.processJob(agent, job, cost);
+					results.add(agent + " 처리 결과: " + job + " => " + result);
+				}
+				return results;
+			};
+			futures.add(executor.submit(task));
+			offset += entry.getValue();
+		}
+		executor.shutdown();
+		executor.awaitTermination(1, TimeUnit.MINUTES);
+		for (Future<List<String>> future : futures) {
+			for (String result : future.get()) {
+				out.println(result);
+			}
+		}
+		out.flush();
+	}
+
+	private static void runPrimitive(Map<String, Integer> allocations, int[] jobs, ThreadDistributedWorker.JobCost cost)
+			throws Exception {
+		ThreadDistributedWorker worker = new ThreadDistributedWorker(allocations);
+		worker.setJobCost(cost);
+		try (ResultSink sink = ResultSink.output(BenchmarkSupport.nullOutput())) {
+			worker.setResultSink(sink);
+			worker.distributeAndExecuteTasks(jobs);
+		}
+	}
+}
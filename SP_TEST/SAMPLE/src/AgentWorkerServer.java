@@ -0,0 +1,79 @@
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.handler.AbstractHandler;
+
+/**
+ * 원격 에이전트 작업자 프로세스 (분산 모드용 Jetty 서버)
+ *
+ * 사용법: java AgentWorkerServer 포트 [건당 처리 시간 ms(기본 0)]
+ *
+ * POST /jobs?agent=A   본문: 작업 번호 int 배열 (빅엔디언) → 응답: 결과 int 배열 (같은 순서)
+ * GET  /health         "OK"
+ * 처리 로직은 ThreadDistributedWorker.processJob과 같다.
+ */
+public class AgentWorkerServer {
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 1) {
+			System.out.println("사용법: java AgentWorkerServer 포트 [건당 처리 시간 ms]");
+			return;
+		}
+		int port = Integer.parseInt(args[0]);
+		int costMillis = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+
+		Server server = new Server();
+		ServerConnector connector = new ServerConnector(server);
+		connector.setPort(port);
+		server.addConnector(connector);
+		server.setHandler(new Handler((agent, job) -> costMillis));
+		server.start();
+		System.out.println("에이전트 작업자 시작: 포트 " + port);
+		server.join();
+	}
+
+	public static class Handler extends AbstractHandler {
+		private final ThreadDistributedWorker.JobCost jobCost;
+
+		public Handler(ThreadDistributedWorker.JobCost jobCost) {
+			this.jobCost = jobCost;
+		}
+
+		@Override
+		public void handle(String target, Request baseRequest, HttpServletRequest request,
+				HttpServletResponse response) throws IOException {
+			if ("/jobs".equals(target) && "POST".equalsIgnoreCase(request.getMethod())) {
+				String agent = request.getParameter("agent");
+				int length = request.getContentLength();
+				if (length < 0 || length % 4 != 0) {
+					response.sendError(HttpServletResponse.SC_BAD_REQUEST, "작업 본문 길이 오류");
+					baseRequest.setHandled(true);
+					return;
+				}
+				int count = length / 4;
+				ByteBuffer out = ByteBuffer.allocate(length);
+				DataInputStream in = new DataInputStream(request.getInputStream());
+				for (int i = 0; i < count; i++) {
+					out.putInt(ThreadDistributedWorker.processJob(agent, in.readInt(), jobCost));
+				}
+				response.setContentType("application/octet-stream");
+				response.setContentLength(length);
+				response.getOutputStream().write(out.array());
+			} else if ("/health".equals(target)) {
+				response.setContentType("text/plain");
+				response.getWriter().write("OK");
+			} else {
+				return;
+			}
+			response.setStatus(HttpServletResponse.SC_OK);
+			baseRequest.setHandled(true);
+		}
+	}
+}
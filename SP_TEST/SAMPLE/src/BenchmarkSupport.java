@@ -0,0 +1,47 @@
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 벤치마크 공통 준비물
+ *
+ * - allocations: 예제 배분 A:50%, B:30%, C:20% (나머지는 C)
+ * - jobs: 작업 번호 1..n
+ * - nullOutput: 출력 바이트를 버리는 스트림 (디스크/콘솔 속도를 측정에서 제외)
+ */
+final class BenchmarkSupport {
+
+	private BenchmarkSupport() {
+	}
+
+	static Map<String, Integer> allocations(int jobCount) {
+		Map<String, Integer> allocations = new LinkedHashMap<>();
+		allocations.put("A", jobCount / 2);
+		allocations.put("B", jobCount * 3 / 10);
+		allocations.put("C", jobCount - jobCount / 2 - jobCount * 3 / 10);
+		return allocations;
+	}
+
+	static int[] jobs(int jobCount) {
+		int[] jobs = new int[jobCount];
+		for (int i = 0; i < jobCount; i++) {
+			jobs[i] = i + 1;
+		}
+		return jobs;
+	}
+
+	// JDK 11의 OutputStream.nullOutputStream()과 같지만 닫은 뒤에도 예외 없이 버림
+	static OutputStream nullOutput() {
+		return new NullOutputStream();
+	}
+
+	private static final class NullOutputStream extends OutputStream {
+		@Override
+		public void write(int b) {
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+		}
+	}
+}
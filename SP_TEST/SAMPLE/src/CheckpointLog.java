@@ -0,0 +1,197 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 작업 실행 체크포인트 로그 (추가 전용)
+ *
+ * 형식 (한 줄씩, UTF-8)
+ *   # jobs 작업수 해시    머리말 (다른 작업 목록으로 이어 하기 방지)
+ *   에이전트 from to      완료된 작업 범위 jobs[from, to)
+ *   @ 출력위치            앞의 범위들의 결과가 출력 대상에 기록됐음을 확정 (출력 파일 바이트 수, 모르면 -1)
+ *
+ * - 결과 스트림의 소비 스레드가 청크를 출력 대상에 넘길 때마다 범위를 메모리에 모으고, batchChunks개가 쌓이거나
+ *   batchMillis가 지나면 출력 대상을 flush한 뒤 모인 범위와 확정 줄을 한 번에 덧붙인다. (청크마다 쓰지 않음)
+ * - 다시 열면 마지막 확정 줄까지만 완료로 보고, 그 뒤(확정 전에 중단된 부분)는 잘라 낸다.
+ * - 출력 파일을 확정된 출력 위치로 잘라 이어 쓰면(ResultSink.file(path, position)) 결과가 중복되거나 빠지지 않는다.
+ *   표준출력이나 콜백처럼 되돌릴 수 없는 출력 대상은 flush와 확정 사이에 중단되면 마지막 묶음이 다시 출력될 수 있다.
+ * 기본으로는 fsync하지 않으므로 프로세스 중단에는 안전하고, OS 중단까지 대비하려면 setSync(true).
+ */
+public class CheckpointLog implements AutoCloseable {
+	private static final int DEFAULT_BATCH_CHUNKS = 64;
+	private static final long DEFAULT_BATCH_MILLIS = 1000;
+
+	private final FileChannel channel;
+	private final BitSet done;          // 확정된 작업 위치
+	private final int resumedJobs;      // 이전 실행에서 완료된 작업 수
+	private final int batchChunks;
+	private final long batchNanos;
+	private final StringBuilder batch = new StringBuilder();
+	private final List<int[]> batchRanges = new ArrayList<>();
+	private long batchStart;            // 묶음 첫 청크 시각
+	private long outputPosition;
+	private boolean sync;
+
+	private CheckpointLog(FileChannel channel, BitSet done, long outputPosition, int batchChunks, long batchMillis) {
+		this.channel = channel;
+		this.done = done;
+		this.resumedJobs = done.cardinality();
+		this.outputPosition = outputPosition;
+		this.batchChunks = batchChunks;
+		this.batchNanos = TimeUnit.MILLISECONDS.toNanos(batchMillis);
+	}
+
+	public static CheckpointLog open(Path path, int[] jobs) throws IOException {
+		return open(path, jobs, DEFAULT_BATCH_CHUNKS, DEFAULT_BATCH_MILLIS);
+	}
+
+	/**
+	 * 로그 열기 (없으면 생성, 있으면 확정된 범위를 읽고 이어서 기록)
+	 * batchChunks/batchMillis: 청크 몇 개 또는 몇 ms마다 한 번 기록할지
+	 * 다른 작업 목록으로 만든 로그면 IllegalStateException
+	 */
+	public static CheckpointLog open(Path path, int[] jobs, int batchChunks, long batchMillis) throws IOException {
+		String header = "# jobs " + jobs.length + " " + Arrays.hashCode(jobs);
+		BitSet done = new BitSet(jobs.length);
+		long position = -1;
+		long committedLength = 0;
+		if (Files.exists(path)) {
+			byte[] bytes = Files.readAllBytes(path);
+			List<int[]> ranges = new ArrayList<>();
+			int start = 0;
+			for (int i = 0; i < bytes.length; i++) {
+				if (bytes[i] != '\n') {
+					continue;
+				}
+				String line = new String(bytes, start, i - start, StandardCharsets.UTF_8);
+				start = i + 1;
+				if (line.startsWith("#")) {
+					if (!line.equals(header)) {
+						throw new IllegalStateException("다른 작업 목록의 체크포인트: " + path);
+					}
+					committedLength = start;
+				} else if (line.startsWith("@ ")) {
+					for (int[] range : ranges) {
+						done.set(range[0], range[1]);
+					}
+					ranges.clear();
+					position = Long.parseLong(line.substring(2));
+					committedLength = start;
+				} else {
+					String[] parts = line.split(" "); // 에이전트 이름에 공백이 있을 수 있으므로 끝에서 두 개
+					ranges.add(new int[] { Integer.parseInt(parts[parts.length - 2]),
+							Integer.parseInt(parts[parts.length - 1]) });
+				}
+			}
+		}
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		try {
+			channel.truncate(committedLength); // 확정 전에 중단된 부분 제거
+			channel.position(committedLength);
+			if (committedLength == 0) {
+				write(channel, header + "\n");
+			}
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+		return new CheckpointLog(channel, done, position, batchChunks, batchMillis);
+	}
+
+	// 확정할 때마다 디스크까지 동기화 (기본: 하지 않음)
+	public void setSync(boolean sync) {
+		this.sync = sync;
+	}
+
+	// 이전 실행에서 완료된 작업 수
+	public int resumedJobs() {
+		return resumedJobs;
+	}
+
+	// 마지막으로 확정된 출력 위치 (출력 파일 바이트 수, 기록 전이거나 알 수 없으면 -1)
+	public long outputPosition() {
+		return outputPosition;
+	}
+
+	/**
+	 * jobs[from, to) 중 아직 끝나지 않은 부분을 chunkSize 이하 청크 {from, to}로 나눈 목록
+	 */
+	public List<int[]> pendingChunks(int from, int to, int chunkSize) {
+		List<int[]> chunks = new ArrayList<>();
+		int lo = done.nextClearBit(from);
+		while (lo < to) {
+			int hi = done.nextSetBit(lo);
+			if (hi < 0 || hi > to) {
+				hi = to;
+			}
+			for (int c = lo; c < hi; c += chunkSize) {
+				chunks.add(new int[] { c, Math.min(c + chunkSize, hi) });
+			}
+			lo = done.nextClearBit(hi);
+		}
+		return chunks;
+	}
+
+	// 소비 스레드: 출력 대상에 넘긴 청크 기록 (묶음이 차면 확정)
+	void completed(ResultChunk chunk, ResultSink sink) throws IOException {
+		if (batchRanges.isEmpty()) {
+			batchStart = System.nanoTime();
+		}
+		int to = chunk.from() + chunk.size();
+		batch.append(chunk.agentName).append(' ').append(chunk.from()).append(' ').append(to).append('\n');
+		batchRanges.add(new int[] { chunk.from(), to });
+		if (batchRanges.size() >= batchChunks) {
+			commit(sink);
+		}
+	}
+
+	// 소비 스레드: 묶음 기한까지 남은 시간 (묶음이 비어 있으면 batchMillis)
+	long millisUntilDue() {
+		if (batchRanges.isEmpty()) {
+			return TimeUnit.NANOSECONDS.toMillis(batchNanos);
+		}
+		long left = batchNanos - (System.nanoTime() - batchStart);
+		return Math.max(0, TimeUnit.NANOSECONDS.toMillis(left));
+	}
+
+	// 소비 스레드: 출력 대상을 flush하고 모인 범위를 확정 줄과 함께 한 번에 기록
+	void commit(ResultSink sink) throws IOException {
+		if (batchRanges.isEmpty()) {
+			return;
+		}
+		sink.flush();
+		long position = sink.position();
+		batch.append("@ ").append(position).append('\n');
+		write(channel, batch.toString());
+		if (sync) {
+			channel.force(false);
+		}
+		for (int[] range : batchRanges) {
+			done.set(range[0], range[1]);
+		}
+		outputPosition = position;
+		batch.setLength(0);
+		batchRanges.clear();
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	private static void write(FileChannel channel, String text) throws IOException {
+		ByteBuffer buffer = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+}
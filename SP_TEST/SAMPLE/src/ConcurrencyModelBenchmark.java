@@ -0,0 +1,445 @@
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+/**
+ * 동시성 모델 비교: UTIL의 MultiAgent 예제들과 ThreadDistributedWorker를 같은 작업으로 실행
+ *
+ * 사용법: java ConcurrencyModelBenchmark [cpu|io|mixed|all(기본)] [작업 수 목록(기본 1000,4000)]
+ *         [스레드 수 목록(기본 3,8,32)] [반복 횟수(기본 2)]
+ *
+ * 모델 (예제의 동시성 구조를 그대로 옮기고 작업 내용만 공통 작업으로 바꿈)
+ * - Thread+join      MultiAgentThreadExample: 에이전트마다 Thread 하나, 순서대로 join
+ * - 풀+Future 맵     MultiAgentResultCollect: 고정 풀(스레드 수)에 에이전트별 Callable, Future 맵에서 결과 수집
+ * - CompletableFuture MultiAgentCompletableFuture: 에이전트별 supplyAsync(ForkJoinPool(스레드 수)), allOf 후 결과
+ * - 풀+Future get    CallableFutureSample: 고정 풀(스레드 수)에 에이전트별 Callable, A/B/C 순서로 get
+ * - TDW STATIC       ThreadDistributedWorker 기본 모드 (고정 풀 3개, 청크 단위 결과 스트리밍)
+ * - TDW 작업 훔치기   ThreadDistributedWorker WORK_STEALING (에이전트 수만큼의 ForkJoinPool)
+ * - TDW 가상 스레드   ThreadDistributedWorker VIRTUAL (동시 처리 수 = 스레드 수, JDK 21 미만은 캐시 풀로 대체)
+ * 앞의 네 예제 구조는 에이전트당 작업 하나이므로 스레드 수를 늘려도 동시 실행은 에이전트 수(3)를 넘지 않는다.
+ *
+ * 작업 (배분은 A:50%, B:30%, C:20%)
+ * - cpu: 건당 xorshift 20000회 계산
+ * - io: 건당 1 ms 대기 (원격 호출 응답 대기 모의)
+ * - mixed: 건당 계산 10000회 + 0.5 ms 대기
+ *
+ * 측정
+ * - 처리량: 전체 작업 수 / 실행 시간
+ * - 지연시간: 실행 시작부터 각 작업 결과를 호출하는 쪽에서 받을 수 있게 된 시각까지 (p50, p99)
+ *   (Future 기반 예제는 에이전트 몫이 모두 끝나야 결과를 받으므로 결과 스트리밍 모델보다 길어짐)
+ *   TDW 모델은 출력 순서를 COMPLETION으로 두어 끝난 청크를 재정렬 대기 없이 받는다.
+ * - 할당: 실행 전후 힙 사용량 차이 + 실행 중 GC가 회수한 양 (GC 알림 기준, 작업 건당 바이트)
+ * 각 작업 종류마다 모델별로 한 번 예열한 뒤, 조합마다 반복 횟수만큼 실행한 평균을 출력한다.
+ */
+public class ConcurrencyModelBenchmark {
+
+	// 공통 작업
+	enum Workload {
+		CPU(20000, 0), IO(0, 1_000_000), MIXED(10000, 500_000);
+
+		final int iterations;
+		final long waitNanos;
+
+		Workload(int iterations, long waitNanos) {
+			this.iterations = iterations;
+			this.waitNanos = waitNanos;
+		}
+
+		// 작업 하나 처리 (결과는 ThreadDistributedWorker.processJob과 같은 job * 2)
+		int apply(int job) {
+			long x = job | 1L;
+			for (int i = 0; i < iterations; i++) {
+				x ^= x << 13;
+				x ^= x >>> 7;
+				x ^= x << 17;
+			}
+			if (x == 0) {
+				blackhole = x; // 계산이 최적화로 사라지지 않도록
+			}
+			if (waitNanos > 0) {
+				LockSupport.parkNanos(waitNanos);
+			}
+			return job * 2;
+		}
+	}
+
+	static volatile long blackhole;
+
+	// 작업 결과를 받을 수 있게 된 시각 기록
+	static final class LatencyRecorder {
+		private final long start = System.nanoTime();
+		private final long[] latencies;
+		private int count;
+
+		LatencyRecorder(int jobCount) {
+			latencies = new long[jobCount];
+		}
+
+		synchronized void completed(int jobs) {
+			long latency = System.nanoTime() - start;
+			Arrays.fill(latencies, count, count + jobs, latency);
+			count += jobs;
+		}
+
+		int count() {
+			return count;
+		}
+
+		// p: 0~1 (정렬 후 호출)
+		double percentileMillis(double p) {
+			Arrays.sort(latencies, 0, count);
+			int index = (int) Math.min(count - 1, Math.ceil(p * count) - 1);
+			return latencies[Math.max(0, index)] / 1e6;
+		}
+	}
+
+	// 모델 하나 실행. 반환: 실제로 작업을 동시에 실행할 수 있는 스레드(또는 동시 처리) 수
+	@FunctionalInterface
+	interface Model {
+		int run(Map<String, Integer> allocations, int[] jobs, int threads, Workload workload, LatencyRecorder latency)
+				throws Exception;
+	}
+
+	// 측정 결과 누적
+	static final class Stats {
+		int rounds;
+		int concurrency;
+		double throughput;
+		double p50;
+		double p99;
+		double bytesPerJob;
+
+		void add(int concurrency, double throughput, double p50, double p99, double bytesPerJob) {
+			this.concurrency = concurrency;
+			this.throughput += throughput;
+			this.p50 += p50;
+			this.p99 += p99;
+			this.bytesPerJob += bytesPerJob;
+			rounds++;
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		List<Workload> workloads = args.length > 0 && !"all".equals(args[0])
+				? Arrays.asList(Workload.valueOf(args[0].toUpperCase()))
+				: Arrays.asList(Workload.values());
+		int[] jobCounts = parseList(args.length > 1 ? args[1] : "1000,4000");
+		int[] threadCounts = parseList(args.length > 2 ? args[2] : "3,8,32");
+		int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 2;
+
+		Map<String, Model> models = new LinkedHashMap<>();
+		models.put("Thread+join", ConcurrencyModelBenchmark::runThreads);
+		models.put("풀+Future 맵", ConcurrencyModelBenchmark::runResultCollect);
+		models.put("CompletableFuture", ConcurrencyModelBenchmark::runCompletableFuture);
+		models.put("풀+Future get", ConcurrencyModelBenchmark::runCallableFuture);
+		models.put("TDW STATIC", worker(ThreadDistributedWorker.SchedulingMode.STATIC));
+		models.put("TDW 작업 훔치기", worker(ThreadDistributedWorker.SchedulingMode.WORK_STEALING));
+		models.put("TDW 가상 스레드", worker(ThreadDistributedWorker.SchedulingMode.VIRTUAL));
+
+		ExecutorService probe = ThreadDistributedWorker.newVirtualThreadExecutor();
+		System.out.printf("Java %s, CPU %d개, 가상 스레드 %s, 반복 %d회%n", System.getProperty("java.version"),
+				Runtime.getRuntime().availableProcessors(), probe != null ? "사용" : "없음 (캐시 풀로 대체)", rounds);
+		if (probe != null) {
+			probe.shutdown();
+		}
+		AllocationMeter meter = new AllocationMeter();
+		for (Workload workload : workloads) {
+			for (Model model : models.values()) {
+				measure(model, workload, jobCounts[0], threadCounts[0], null, null); // 예열
+			}
+			for (int jobCount : jobCounts) {
+				for (int threads : threadCounts) {
+					System.out.printf("%n[%s] 작업 %,d건, 스레드 %d%n", workload, jobCount, threads);
+					System.out.printf("%-18s %6s %12s %10s %10s %10s%n", "모델", "동시", "처리량(건/s)", "p50(ms)",
+							"p99(ms)", "할당(B/건)");
+					for (Map.Entry<String, Model> entry : models.entrySet()) {
+						Stats stats = new Stats();
+						for (int r = 0; r < rounds; r++) {
+							measure(entry.getValue(), workload, jobCount, threads, stats, meter);
+						}
+						System.out.printf("%-18s %6d %,12.1f %,10.2f %,10.2f %,10.0f%n", entry.getKey(),
+								stats.concurrency, stats.throughput / stats.rounds, stats.p50 / stats.rounds,
+								stats.p99 / stats.rounds, stats.bytesPerJob / stats.rounds);
+					}
+				}
+			}
+		}
+		meter.close();
+	}
+
+	private static void measure(Model model, Workload workload, int jobCount, int threads, Stats stats,
+			AllocationMeter meter) throws Exception {
+		Map<String, Integer> allocations = BenchmarkSupport.allocations(jobCount);
+		int[] jobs = BenchmarkSupport.jobs(jobCount);
+		if (meter != null) {
+			meter.start();
+		}
+		// 모델 안의 안내 출력(에이전트별 처리 건수 등)은 측정 결과와 섞이지 않도록 버림
+		PrintStream console = System.out;
+		System.setOut(new PrintStream(BenchmarkSupport.nullOutput()));
+		LatencyRecorder latency;
+		int concurrency;
+		long elapsed;
+		try {
+			long start = System.nanoTime();
+			latency = new LatencyRecorder(jobCount);
+			concurrency = model.run(allocations, jobs, threads, workload, latency);
+			elapsed = System.nanoTime() - start;
+		} finally {
+			System.setOut(console);
+		}
+		long allocated = meter != null ? meter.stop() : 0;
+		if (latency.count() != jobCount) {
+			throw new IllegalStateException("결과 수 불일치: " + latency.count() + " / " + jobCount);
+		}
+		if (stats != null) {
+			stats.add(concurrency, jobCount / (elapsed / 1e9), latency.percentileMillis(0.5),
+					latency.percentileMillis(0.99), (double) allocated / jobCount);
+		}
+	}
+
+	// 에이전트 몫 처리 (예제들의 공통 작업 루프)
+	private static int[] processShare(int[] jobs, int from, int to, Workload workload) {
+		int[] results = new int[to - from];
+		for (int i = from; i < to; i++) {
+			results[i - from] = workload.apply(jobs[i]);
+		}
+		return results;
+	}
+
+	// 에이전트별 [from, to) (배분 순서대로)
+	private static Map<String, int[]> ranges(Map<String, Integer> allocations) {
+		Map<String, int[]> ranges = new LinkedHashMap<>();
+		int offset = 0;
+		for (Map.Entry<String, Integer> entry : allocations.entrySet()) {
+			ranges.put(entry.getKey(), new int[] { offset, offset + entry.getValue() });
+			offset += entry.getValue();
+		}
+		return ranges;
+	}
+
+	// MultiAgentThreadExample: 에이전트마다 Thread 하나, 순서대로 join 후 결과 사용
+	private static int runThreads(Map<String, Integer> allocations, int[] jobs, int threads, Workload workload,
+			LatencyRecorder latency) throws InterruptedException {
+		Map<String, int[]> ranges = ranges(allocations);
+		List<Thread> agentThreads = new ArrayList<>();
+		List<int[][]> results = new ArrayList<>();
+		for (int[] range : ranges.values()) {
+			int[][] holder = new int[1][];
+			Thread t = new Thread(() -> holder[0] = processShare(jobs, range[0], range[1], workload));
+			agentThreads.add(t);
+			results.add(holder);
+			t.start();
+		}
+		for (int i = 0; i < agentThreads.size(); i++) {
+			agentThreads.get(i).join();
+			latency.completed(results.get(i)[0].length);
+		}
+		return agentThreads.size();
+	}
+
+	// MultiAgentResultCollect: 고정 풀에 에이전트별 Callable, Future 맵에서 결과 수집
+	private static int runResultCollect(Map<String, Integer> allocations, int[] jobs, int threads, Workload workload,
+			LatencyRecorder latency) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			Map<String, Future<int[]>> futures = new HashMap<>();
+			for (Map.Entry<String, int[]> entry : ranges(allocations).entrySet()) {
+				int[] range = entry.getValue();
+				Callable<int[]> task = () -> processShare(jobs, range[0], range[1], workload);
+				futures.put(entry.getKey(), executor.submit(task));
+			}
+			Map<String, int[]> results = new HashMap<>();
+			for (Map.Entry<String, Future<int[]>> entry : futures.entrySet()) {
+				results.put(entry.getKey(), entry.getValue().get());
+				latency.completed(results.get(entry.getKey()).length);
+			}
+			return Math.min(threads, allocations.size());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	// MultiAgentCompletableFuture: 에이전트별 supplyAsync, allOf로 모두 끝난 뒤 결과 사용
+	private static int runCompletableFuture(Map<String, Integer> allocations, int[] jobs, int threads,
+			Workload workload, LatencyRecorder latency) {
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			List<CompletableFuture<int[]>> futures = new ArrayList<>();
+			for (int[] range : ranges(allocations).values()) {
+				futures.add(CompletableFuture.supplyAsync(() -> processShare(jobs, range[0], range[1], workload), pool));
+			}
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+					.thenRun(() -> futures.forEach(f -> latency.completed(f.join().length)))
+					.join();
+			return Math.min(threads, allocations.size());
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	// CallableFutureSample: 고정 풀에 에이전트별 Callable, 제출 순서대로 get (블로킹)
+	private static int runCallableFuture(Map<String, Integer> allocations, int[] jobs, int threads,
+			Workload workload, LatencyRecorder latency) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<int[]>> futures = new ArrayList<>();
+			for (int[] range : ranges(allocations).values()) {
+				futures.add(executor.submit(() -> processShare(jobs, range[0], range[1], workload)));
+			}
+			for (Future<int[]> future : futures) {
+				latency.completed(future.get().length);
+			}
+			return Math.min(threads, allocations.size());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	// ThreadDistributedWorker: 작업은 처리 시간 모의 자리에서 실행하고, 결과는 청크를 받을 때마다 기록
+	private static Model worker(ThreadDistributedWorker.SchedulingMode mode) {
+		return (allocations, jobs, threads, workload, latency) -> {
+			ThreadDistributedWorker worker = new ThreadDistributedWorker(allocations, mode);
+			worker.setJobCost((agent, job) -> {
+				workload.apply(job);
+				return 0;
+			});
+			worker.setVirtualConcurrency(threads);
+			// 다른 모델처럼 끝난 결과를 바로 받는다 (작업 순서 출력의 재정렬 대기를 지연시간에 섞지 않음)
+			worker.setOutputOrder(ResultStream.Order.COMPLETION, 64);
+			worker.setResultSink(new ResultSink() {
+				@Override
+				public void accept(String result) {
+					latency.completed(1);
+				}
+
+				@Override
+				public void accept(ResultChunk chunk) {
+					latency.completed(chunk.size());
+				}
+			});
+			worker.distributeAndExecuteTasks(jobs);
+			return mode == ThreadDistributedWorker.SchedulingMode.VIRTUAL ? threads
+					: mode == ThreadDistributedWorker.SchedulingMode.STATIC ? 3 : allocations.size();
+		};
+	}
+
+	private static int[] parseList(String list) {
+		String[] parts = list.split(",");
+		int[] values = new int[parts.length];
+		for (int i = 0; i < parts.length; i++) {
+			values[i] = Integer.parseInt(parts[i].trim());
+		}
+		return values;
+	}
+
+	/**
+	 * 실행 중 할당량 추정: 힙 사용량 차이 + 그 사이 GC가 회수한 양
+	 * (GC 알림은 별도 스레드로 늦게 오므로 stop에서 GC 횟수만큼 알림을 받을 때까지 기다림)
+	 */
+	static final class AllocationMeter implements NotificationListener, AutoCloseable {
+		private final AtomicLong collected = new AtomicLong();
+		private final AtomicLong notifications = new AtomicLong();
+		private final List<NotificationEmitter> emitters = new ArrayList<>();
+		private final long gcBase = gcCount(); // 등록 전 GC는 알림이 오지 않음
+		private long heapBefore;
+
+		AllocationMeter() {
+			for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+				if (gc instanceof NotificationEmitter) {
+					NotificationEmitter emitter = (NotificationEmitter) gc;
+					emitter.addNotificationListener(this, null, null);
+					emitters.add(emitter);
+				}
+			}
+		}
+
+		@Override
+		public void handleNotification(Notification notification, Object handback) {
+			if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+				return;
+			}
+			GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo
+					.from((CompositeData) notification.getUserData());
+			long before = 0;
+			long after = 0;
+			for (MemoryUsage usage : info.getGcInfo().getMemoryUsageBeforeGc().values()) {
+				before += usage.getUsed();
+			}
+			for (MemoryUsage usage : info.getGcInfo().getMemoryUsageAfterGc().values()) {
+				after += usage.getUsed();
+			}
+			collected.addAndGet(Math.max(0, before - after));
+			notifications.incrementAndGet();
+		}
+
+		void start() throws InterruptedException {
+			System.gc();
+			awaitNotifications();
+			collected.set(0);
+			heapBefore = heapUsed();
+		}
+
+		long stop() throws InterruptedException {
+			long heapAfter = heapUsed();
+			awaitNotifications();
+			return Math.max(0, heapAfter - heapBefore + collected.get());
+		}
+
+		@Override
+		public void close() {
+			for (NotificationEmitter emitter : emitters) {
+				try {
+					emitter.removeNotificationListener(this);
+				} catch (ListenerNotFoundException e) {
+					// 이미 해제됨
+				}
+			}
+		}
+
+		// 지금까지의 GC 알림을 모두 받을 때까지 (최대 1초)
+		private void awaitNotifications() throws InterruptedException {
+			long expected = gcCount() - gcBase;
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+			while (notifications.get() < expected && System.nanoTime() < deadline) {
+				Thread.sleep(5);
+			}
+		}
+
+		private static long heapUsed() {
+			return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+		}
+
+		private static long gcCount() {
+			long count = 0;
+			for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+				count += Math.max(0, gc.getCollectionCount());
+			}
+			return count;
+		}
+	}
+}
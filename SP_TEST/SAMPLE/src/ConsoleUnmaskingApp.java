@@ -0,0 +1,57 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * 콘솔 기반 언마스킹 프로그램 (원본 정보 파일 활용)
+ *
+ * 사용법:
+ *   java ConsoleUnmaskingApp                  : 고객명 하나 입력받아 조회
+ *   java ConsoleUnmaskingApp --index          : 원본 정보 파일 인덱스 생성
+ *   java ConsoleUnmaskingApp --batch 파일명    : 파일의 고객명(한 줄에 하나)을 한 번에 조회하여 "고객명:원본데이터" 출력
+ */
+public class ConsoleUnmaskingApp {
+    private static final String FILE_PATH = "original_data.txt";
+
+    // 고객명:원본데이터 형태의 파일에서 데이터 조회 (인덱스로 해당 줄만 읽음)
+    public static String loadOriginalData(String customerName, String filePath) throws IOException {
+        try (OriginalDataIndex index = OriginalDataIndex.open(Paths.get(filePath))) {
+            return index.lookup(customerName);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && "--index".equals(args[0])) {
+            long start = System.currentTimeMillis();
+            OriginalDataIndex.build(Paths.get(FILE_PATH));
+            System.out.println("인덱스 생성 완료: " + OriginalDataIndex.indexPath(Paths.get(FILE_PATH))
+                    + " (" + (System.currentTimeMillis() - start) + " ms)");
+            return;
+        }
+        if (args.length > 1 && "--batch".equals(args[0])) {
+            List<String> names = Files.readAllLines(Paths.get(args[1]), StandardCharsets.UTF_8);
+            try (OriginalDataIndex index = OriginalDataIndex.open(Paths.get(FILE_PATH))) {
+                PrintStream out = new PrintStream(new BufferedOutputStream(System.out, 1 << 16), false, "UTF-8");
+                for (Map.Entry<String, String> e : index.lookupAll(names).entrySet()) {
+                    out.println(e.getKey() + ":" + (e.getValue() != null ? e.getValue() : ""));
+                }
+                out.flush();
+            }
+            return;
+        }
+
+        try (Scanner sc = new Scanner(System.in)) {
+			System.out.print("언마스킹할 고객명 입력: ");
+			String name = sc.nextLine();
+
+			String originalData = loadOriginalData(name, FILE_PATH);
+
+			if (originalData != null) {
+			    System.out.println("원본 데이터: " + originalData);
+			} else {
+			    System.out.println("해당 고객의 원본 데이터가 없습니다.");
+			}
+		}
+    }
+}
@@ -0,0 +1,212 @@
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.client.api.Result;
+import org.eclipse.jetty.client.util.BufferingResponseListener;
+import org.eclipse.jetty.client.util.BytesContentProvider;
+import org.eclipse.jetty.http.HttpMethod;
+
+/**
+ * 원격 에이전트 작업자(AgentWorkerServer)에 청크를 보내는 분산 실행
+ *
+ * - 배분(ALLOCATION.JSON)대로 자른 에이전트별 청크 목록을 받아, 공유 HttpClient로 에이전트마다
+ *   pipelineDepth개까지 요청을 동시에 보낸다 (응답을 기다리지 않고 다음 청크 전송).
+ * - 응답은 Jetty 콜백에서 에이전트별 완료 큐에 넣기만 하고, 에이전트마다 하나인 조정 스레드가 꺼내
+ *   결과 스트림으로 넘긴 뒤 다음 청크를 보낸다. (Jetty 스레드는 막히지 않음)
+ * - 요청이 실패(연결 실패, 시간 초과, 200 이외 응답)하면 그 에이전트는 이번 실행에서 제외하고,
+ *   실패한 청크와 남은 몫은 공용 재배정 큐로 옮겨 살아 있는 에이전트가 자기 몫보다 먼저 처리한다.
+ * 결과는 실제로 처리한 에이전트 이름으로 기록된다.
+ */
+public class DistributedDispatcher {
+	private static final long REQUEST_TIMEOUT_SECONDS = 30;
+	private static final int MAX_RESPONSE_BYTES = 64 * 1024 * 1024;
+
+	// 청크 하나 (jobs[from, to), 결과 스트림 순번)
+	private static final class Chunk {
+		final int from;
+		final int to;
+		final long seq;
+
+		Chunk(int from, int to, long seq) {
+			this.from = from;
+			this.to = to;
+			this.seq = seq;
+		}
+	}
+
+	// 요청 완료 (results가 null이면 실패)
+	private static final class Completion {
+		final Chunk chunk;
+		final int[] results;
+		final Throwable failure;
+
+		Completion(Chunk chunk, int[] results, Throwable failure) {
+			this.chunk = chunk;
+			this.results = results;
+			this.failure = failure;
+		}
+	}
+
+	private final HttpClient client;
+	private final Map<String, String> endpoints;
+	private final int pipelineDepth;
+
+	/**
+	 * endpoints: 에이전트 이름 → 작업자 주소 (예: A → http://localhost:9001)
+	 */
+	public DistributedDispatcher(HttpClient client, Map<String, String> endpoints, int pipelineDepth) {
+		this.client = client;
+		this.endpoints = endpoints;
+		this.pipelineDepth = pipelineDepth;
+	}
+
+	/**
+	 * 실행. plan: 에이전트 → 청크 {from, to} 목록
+	 * 결과는 stream으로 완료 순서대로 전달하고, 에이전트별 처리 건수를 반환한다.
+	 * 모든 에이전트가 실패하면 ExecutionException
+	 */
+	public Map<String, Integer> run(int[] jobs, Map<String, List<int[]>> plan, ResultStream stream)
+			throws InterruptedException, ExecutionException {
+		Map<String, ArrayDeque<Chunk>> own = new LinkedHashMap<>();
+		long seq = 0;
+		for (Map.Entry<String, List<int[]>> entry : plan.entrySet()) {
+			if (!endpoints.containsKey(entry.getKey())) {
+				throw new IllegalArgumentException("작업자 주소가 없는 에이전트: " + entry.getKey());
+			}
+			ArrayDeque<Chunk> chunks = new ArrayDeque<>();
+			for (int[] range : entry.getValue()) {
+				chunks.add(new Chunk(range[0], range[1], seq++));
+			}
+			own.put(entry.getKey(), chunks);
+		}
+
+		ConcurrentLinkedQueue<Chunk> orphans = new ConcurrentLinkedQueue<>();
+		AtomicLong remaining = new AtomicLong(seq);
+		AtomicInteger alive = new AtomicInteger(own.size());
+		ExecutorService pool = Executors.newFixedThreadPool(own.size());
+		Map<String, Future<Integer>> futures = new LinkedHashMap<>();
+		try {
+			for (Map.Entry<String, ArrayDeque<Chunk>> entry : own.entrySet()) {
+				String agent = entry.getKey();
+				futures.put(agent, pool.submit(
+						() -> coordinate(agent, jobs, entry.getValue(), orphans, remaining, alive, stream)));
+			}
+			pool.shutdown();
+			try {
+				stream.drain(seq);
+			} catch (IOException e) {
+				throw new ExecutionException("결과 출력 실패", e);
+			}
+			Map<String, Integer> processed = new LinkedHashMap<>();
+			for (Map.Entry<String, Future<Integer>> entry : futures.entrySet()) {
+				processed.put(entry.getKey(), entry.getValue().get());
+			}
+			return processed;
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	// 에이전트 하나의 조정 루프. 반환: 이 에이전트가 처리한 건수
+	private int coordinate(String agent, int[] jobs, ArrayDeque<Chunk> own, ConcurrentLinkedQueue<Chunk> orphans,
+			AtomicLong remaining, AtomicInteger alive, ResultStream stream) throws InterruptedException {
+		String url = endpoints.get(agent) + "/jobs?agent=" + URLEncoder.encode(agent, StandardCharsets.UTF_8);
+		BlockingQueue<Completion> completions = new LinkedBlockingQueue<>();
+		List<Chunk> inFlight = new ArrayList<>();
+		boolean healthy = true;
+		int processed = 0;
+		while (true) {
+			// 보낼 수 있는 만큼 전송 (재배정 청크 우선)
+			while (healthy && inFlight.size() < pipelineDepth) {
+				Chunk chunk = orphans.poll();
+				if (chunk == null) {
+					chunk = own.poll();
+				}
+				if (chunk == null) {
+					break;
+				}
+				inFlight.add(chunk);
+				send(url, jobs, chunk, completions);
+			}
+			if (inFlight.isEmpty() && (!healthy || remaining.get() == 0)) {
+				return processed;
+			}
+
+			Completion done = completions.poll(50, TimeUnit.MILLISECONDS);
+			if (done == null) {
+				continue; // 다른 에이전트 실패로 생긴 재배정 청크 확인
+			}
+			inFlight.remove(done.chunk);
+			if (done.results != null) {
+				stream.publish(done.chunk.seq, new ResultChunk(agent, jobs, done.chunk.from, done.results));
+				processed += done.results.length;
+				remaining.decrementAndGet();
+				continue;
+			}
+			// 실패: 이 청크와 아직 보내지 않은 몫을 재배정 (이미 보낸 요청의 응답은 계속 받음)
+			orphans.add(done.chunk);
+			if (healthy) {
+				healthy = false;
+				System.out.printf("[에이전트 실패] %s (%s): %s%n", agent, endpoints.get(agent), done.failure);
+				Chunk rest;
+				while ((rest = own.poll()) != null) {
+					orphans.add(rest);
+				}
+				if (alive.decrementAndGet() == 0) {
+					stream.fail(new IOException("모든 에이전트 작업자 실패", done.failure));
+				}
+			}
+		}
+	}
+
+	private void send(String url, int[] jobs, Chunk chunk, BlockingQueue<Completion> completions) {
+		ByteBuffer body = ByteBuffer.allocate((chunk.to - chunk.from) * 4);
+		for (int i = chunk.from; i < chunk.to; i++) {
+			body.putInt(jobs[i]);
+		}
+		client.newRequest(url)
+				.method(HttpMethod.POST)
+				.content(new BytesContentProvider("application/octet-stream", body.array()))
+				.timeout(REQUEST_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+				.send(new BufferingResponseListener(MAX_RESPONSE_BYTES) {
+					@Override
+					public void onComplete(Result result) {
+						if (result.isFailed()) {
+							completions.add(new Completion(chunk, null, result.getFailure()));
+							return;
+						}
+						if (result.getResponse().getStatus() != 200) {
+							completions.add(new Completion(chunk, null,
+									new IOException("HTTP " + result.getResponse().getStatus())));
+							return;
+						}
+						ByteBuffer content = ByteBuffer.wrap(getContent());
+						if (content.remaining() != (chunk.to - chunk.from) * 4) {
+							completions.add(new Completion(chunk, null, new IOException("결과 길이 불일치")));
+							return;
+						}
+						int[] results = new int[chunk.to - chunk.from];
+						content.asIntBuffer().get(results);
+						completions.add(new Completion(chunk, results, null));
+					}
+				});
+	}
+}
@@ -0,0 +1,176 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * 대용량 구분자 파일 병렬 마스킹 도구
+ *
+ * 사용법: java FileMaskingTool 정책파일 입력파일 출력파일 [구분자(기본 '|')] [스레드 수(기본 코어 수)]
+ *   정책파일 형식은 고객별 정책 파일과 같음 (field1=1-2, field2=phone ...)
+ *
+ * 1) 입력 파일을 줄 경계에 맞춘 청크로 나누고 청크별로 mmap
+ * 2) 워커 스레드들이 청크마다 컴파일된 마스킹 계획을 적용하여 메모리 버퍼에 결과 작성
+ * 3) 마스킹 후 바이트 길이가 바뀔 수 있으므로(한글 → '*') 청크 출력 위치는 앞 청크 길이의 누적합으로 정하고,
+ *    위치가 정해진 청크부터 FileChannel 위치 지정 쓰기로 바로 기록 (전역 락 없음)
+ * 동시에 메모리에 올라가는 청크 수는 스레드 수의 2배로 제한한다.
+ */
+public class FileMaskingTool {
+    private static final long CHUNK_SIZE = 32L * 1024 * 1024;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.out.println("사용법: java FileMaskingTool 정책파일 입력파일 출력파일 [구분자] [스레드 수]");
+            return;
+        }
+        MaskPolicyEngine.Plan plan = MaskPolicyEngine.compile(
+                Files.readAllLines(Paths.get(args[0]), StandardCharsets.UTF_8), "", args[0]);
+        Path input = Paths.get(args[1]);
+        Path output = Paths.get(args[2]);
+        byte delimiter = args.length > 3 ? (byte) args[3].charAt(0) : (byte) '|';
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+
+        long start = System.nanoTime();
+        long written = maskFile(plan, input, output, delimiter, threads);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("마스킹 완료: %,d bytes → %,d bytes, %.2f s (%.1f MB/s, %d threads)%n",
+                Files.size(input), written, seconds, Files.size(input) / 1e6 / seconds, threads);
+    }
+
+    /**
+     * 파일 전체 마스킹. 반환: 출력 파일 크기
+     */
+    public static long maskFile(MaskPolicyEngine.Plan plan, Path input, Path output, byte delimiter, int threads)
+            throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        Semaphore inFlight = new Semaphore(threads * 2);
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+                FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING)) {
+            long[] bounds = chunkBounds(in, CHUNK_SIZE);
+            List<CompletableFuture<Void>> writes = new ArrayList<>();
+            // 청크 i의 출력 시작 위치 = 앞 청크들의 출력 길이 합
+            CompletableFuture<Long> offset = CompletableFuture.completedFuture(0L);
+            for (int i = 0; i + 1 < bounds.length; i++) {
+                inFlight.acquire();
+                MappedByteBuffer chunk = in.map(FileChannel.MapMode.READ_ONLY, bounds[i], bounds[i + 1] - bounds[i]);
+                CompletableFuture<ByteBuffer> masked = CompletableFuture.supplyAsync(
+                        () -> maskChunk(plan, chunk, delimiter), pool);
+                CompletableFuture<Long> chunkStart = offset;
+                writes.add(masked.thenAcceptBothAsync(chunkStart, (buf, pos) -> {
+                    try {
+                        long p = pos;
+                        while (buf.hasRemaining()) {
+                            p += out.write(buf, p);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, pool).whenComplete((v, e) -> inFlight.release()));
+                offset = chunkStart.thenCombine(masked, (pos, buf) -> pos + buf.remaining());
+            }
+            CompletableFuture.allOf(writes.toArray(new CompletableFuture<?>[0])).join();
+            return offset.join();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // 약 chunkSize 단위로 자르되 각 경계를 다음 줄바꿈 직후로 맞춤
+    static long[] chunkBounds(FileChannel in, long chunkSize) throws IOException {
+        long size = in.size();
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(64 * 1024);
+        long pos = chunkSize;
+        while (pos < size) {
+            long next = -1;
+            long scan = pos;
+            while (next < 0 && scan < size) {
+                probe.clear();
+                int n = in.read(probe, scan);
+                for (int i = 0; i < n; i++) {
+                    if (probe.get(i) == '\n') {
+                        next = scan + i + 1;
+                        break;
+                    }
+                }
+                scan += n;
+            }
+            if (next < 0 || next >= size) {
+                break;
+            }
+            bounds.add(next);
+            pos = next + chunkSize;
+        }
+        bounds.add(size);
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * 청크 하나 마스킹. 마스킹하지 않는 필드(KEEP)는 바이트를 그대로 복사하고, 나머지만 문자열로 변환해 마스킹한다.
+     */
+    static ByteBuffer maskChunk(MaskPolicyEngine.Plan plan, ByteBuffer chunk, byte delimiter) {
+        int limit = chunk.limit();
+        byte[] out = new byte[limit + limit / 8 + 16];
+        int outLen = 0;
+        int fieldStart = 0;
+        int field = 0;
+        for (int i = 0; i <= limit; i++) {
+            byte b = i < limit ? chunk.get(i) : (byte) '\n';
+            if (b != delimiter && b != '\n') {
+                continue;
+            }
+            if (i == limit && fieldStart == limit) {
+                break; // 청크가 줄바꿈으로 끝남
+            }
+            // 줄 끝의 '\r'은 필드 값에 포함하지 않음
+            int fieldEnd = b == '\n' && i > fieldStart && chunk.get(i - 1) == '\r' ? i - 1 : i;
+            MaskPolicyEngine.MaskOp op = plan.op(field);
+            int len = fieldEnd - fieldStart;
+            if (op == MaskPolicyEngine.KEEP) {
+                if (outLen + len + 2 > out.length) {
+                    out = Arrays.copyOf(out, Math.max(out.length * 2, outLen + len + 2));
+                }
+                chunk.get(fieldStart, out, outLen, len);
+                outLen += len;
+            } else {
+                byte[] value = new byte[len];
+                chunk.get(fieldStart, value, 0, len);
+                byte[] masked = op.mask(new String(value, StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8);
+                if (outLen + masked.length + 2 > out.length) {
+                    out = Arrays.copyOf(out, Math.max(out.length * 2, outLen + masked.length + 2));
+                }
+                System.arraycopy(masked, 0, out, outLen, masked.length);
+                outLen += masked.length;
+            }
+            if (i == limit) {
+                break; // 마지막 줄에 줄바꿈이 없으면 추가하지 않음
+            }
+            if (fieldEnd < i) {
+                out[outLen++] = '\r';
+            }
+            out[outLen++] = b;
+            fieldStart = i + 1;
+            field = b == '\n' ? 0 : field + 1;
+        }
+        return ByteBuffer.wrap(out, 0, outLen);
+    }
+}
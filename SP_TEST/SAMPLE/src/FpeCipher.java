@@ -0,0 +1,356 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * 형식 보존 암호화(FPE) - NIST SP 800-38G FF1, 10진수 전용
+ *
+ * 숫자 자리수와 숫자 외 문자(하이픈 등)의 위치는 그대로 두고 숫자만 키로 암호화한다.
+ *   010-1234-5678 → 483-9921-0374 (같은 키/고객이면 항상 같은 결과, 키만 있으면 복호화 가능)
+ * 따라서 (범위 안의 값은) 변환정보를 저장하거나 읽을 필요가 없다. 트윅(tweak)에는 고객 ID를 사용한다.
+ *
+ * - 숫자 6~32자리만 암호화 (FF1 최소 도메인 10^6, 그 이상은 long 범위 계산을 위해 제한)
+ *   범위를 벗어난 값은 숫자를 모두 '*'로 바꾸고, 그 값만 원본을 변환정보에 저장한다 (언마스킹 시 변환정보에서 복원)
+ * - 자리수별로 P 블록과 트윅 블록까지의 CBC-MAC 상태를 미리 계산해 두어, 라운드마다 AES 블록 1개만 암호화
+ *
+ * 키 파일: 16/24/32바이트 AES 키의 16진 문자열 (없으면 새로 생성). 경로는 시스템 프로퍼티 fpe.key (기본 "fpe.key")
+ */
+public final class FpeCipher {
+    private static final int RADIX = 10;
+    private static final int ROUNDS = 10;
+    private static final int MIN_DIGITS = 6;
+    private static final int MAX_DIGITS = 32;
+    private static final long[] POW10 = new long[MAX_DIGITS / 2 + 1];
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+    }
+
+    private static volatile FpeCipher shared;
+
+    private final ThreadLocal<Cipher> aes;
+
+    public FpeCipher(byte[] key) throws GeneralSecurityException {
+        SecretKeySpec spec = new SecretKeySpec(key, "AES");
+        Cipher.getInstance("AES/ECB/NoPadding").init(Cipher.ENCRYPT_MODE, spec); // 키 검증
+        this.aes = ThreadLocal.withInitial(() -> {
+            try {
+                Cipher c = Cipher.getInstance("AES/ECB/NoPadding");
+                c.init(Cipher.ENCRYPT_MODE, spec);
+                return c;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    /**
+     * 공용 키 (시스템 프로퍼티 fpe.key 경로의 키 파일, 처음 사용할 때 한 번 로드)
+     */
+    public static FpeCipher shared() {
+        FpeCipher c = shared;
+        if (c == null) {
+            synchronized (FpeCipher.class) {
+                c = shared;
+                if (c == null) {
+                    try {
+                        c = shared = load(Paths.get(System.getProperty("fpe.key", "fpe.key")));
+                    } catch (IOException | GeneralSecurityException e) {
+                        throw new IllegalStateException("FPE 키 로드 실패", e);
+                    }
+                }
+            }
+        }
+        return c;
+    }
+
+    /**
+     * 키 파일 로드 (없으면 256비트 키를 새로 만들어 저장)
+     * 새 키 파일은 처음부터 소유자 전용 권한(rw-------)으로 만든 뒤에 키를 쓴다. 권한을 나중에 바꾸면
+     * 그 사이에 다른 사용자가 파일을 열어 둘 수 있다.
+     */
+    public static FpeCipher load(Path keyFile) throws IOException, GeneralSecurityException {
+        if (!Files.exists(keyFile)) {
+            byte[] key = new byte[32];
+            new SecureRandom().nextBytes(key);
+            createOwnerOnly(keyFile);
+            Files.write(keyFile, HexFormat.of().formatHex(key).getBytes(StandardCharsets.US_ASCII),
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            System.out.println("FPE 키 생성: " + keyFile.toAbsolutePath() + " (분실 시 복호화 불가)");
+        }
+        String hex = new String(Files.readAllBytes(keyFile), StandardCharsets.US_ASCII).trim();
+        return new FpeCipher(HexFormat.of().parseHex(hex));
+    }
+
+    private static void createOwnerOnly(Path file) throws IOException {
+        try {
+            Files.createFile(file, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } catch (UnsupportedOperationException e) {
+            Files.createFile(file); // POSIX 권한을 지원하지 않는 파일시스템
+        }
+    }
+
+    /**
+     * NIST FF1 예제 벡터 확인 + 처리량 측정
+     */
+    public static void main(String[] args) throws Exception {
+        FpeCipher nist = new FpeCipher(HexFormat.of().parseHex("2B7E151628AED2A6ABF7158809CF4F3C"));
+        byte[] tweak = HexFormat.of().parseHex("39383736353433323130");
+        System.out.println("FF1-AES128 sample 1: " + nist.encrypt("0123456789", new byte[0]) + " (expected 2433477484)");
+        System.out.println("FF1-AES128 sample 2: " + nist.encrypt("0123456789", tweak) + " (expected 6124200773)");
+        System.out.println("decrypt            : " + nist.decrypt("6124200773", tweak));
+
+        MaskPolicyEngine.MaskOp op = nist.op("customer01");
+        String[] phones = new String[100_000];
+        for (int i = 0; i < phones.length; i++) {
+            phones[i] = String.format("010-%04d-%04d", i % 10000, (i * 7919) % 10000);
+        }
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            int mismatches = 0;
+            for (String phone : phones) {
+                if (!phone.equals(op.unmask(op.mask(phone)))) {
+                    mismatches++;
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%s → %s, 마스킹+복원 %,.0f 필드/초 (불일치 %d)%n", phones[1], op.mask(phones[1]),
+                    phones.length * 2 / seconds, mismatches);
+        }
+    }
+
+    /**
+     * 트윅(고객 ID)별 마스킹 연산
+     */
+    public MaskPolicyEngine.MaskOp op(String tweak) {
+        return new DigitsOp(this, tweak.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 숫자 문자열 FF1 암호화/복호화 (digits: '0'~'9'만, 길이 6~32)
+     */
+    public String encrypt(String digits, byte[] tweak) {
+        return new String(crypt(layout(digits.length(), tweak), toDigits(digits), true));
+    }
+
+    public String decrypt(String digits, byte[] tweak) {
+        return new String(crypt(layout(digits.length(), tweak), toDigits(digits), false));
+    }
+
+    private static char[] toDigits(String s) {
+        char[] d = s.toCharArray();
+        for (char c : d) {
+            if (c < '0' || c > '9') {
+                throw new IllegalArgumentException("digits only: " + s);
+            }
+        }
+        return d;
+    }
+
+    /**
+     * FF1 (NIST SP 800-38G 알고리즘 7/8). x: '0'~'9' 문자 배열, 제자리에서 변환
+     */
+    private char[] crypt(Layout l, char[] x, boolean encrypt) {
+        Cipher cipher = aes.get();
+        long a = num(x, 0, l.u);
+        long b = num(x, l.u, l.n);
+        byte[] block = new byte[16];
+        for (int r = 0; r < ROUNDS; r++) {
+            int i = encrypt ? r : ROUNDS - 1 - r;
+            long m = POW10[(i & 1) == 0 ? l.u : l.v];
+            // Q의 마지막 블록: [상수 접두부][i][NUM(B 또는 A), b바이트]
+            System.arraycopy(l.lastBlockPrefix, 0, block, 0, 16);
+            block[15 - l.b] = (byte) i;
+            long numIn = encrypt ? b : a;
+            for (int k = 0; k < l.b; k++) {
+                block[15 - k] = (byte) (numIn >>> (8 * k));
+            }
+            for (int k = 0; k < 16; k++) {
+                block[k] ^= l.state[k];
+            }
+            try {
+                cipher.doFinal(block, 0, 16, block, 0); // R = PRF(P || Q)
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+            // y = NUM(S) mod radix^m, S = R의 앞 d바이트
+            long y = 0;
+            for (int k = 0; k < l.d; k++) {
+                y = (y * 256 + (block[k] & 0xFF)) % m;
+            }
+            if (encrypt) {
+                long c = (a % m + y) % m;
+                a = b;
+                b = c;
+            } else {
+                long c = ((b - y) % m + m) % m;
+                b = a;
+                a = c;
+            }
+        }
+        str(a, x, 0, l.u);
+        str(b, x, l.u, l.n);
+        return x;
+    }
+
+    private static long num(char[] x, int from, int to) {
+        long v = 0;
+        for (int i = from; i < to; i++) {
+            v = v * RADIX + (x[i] - '0');
+        }
+        return v;
+    }
+
+    private static void str(long v, char[] x, int from, int to) {
+        for (int i = to - 1; i >= from; i--) {
+            x[i] = (char) ('0' + v % RADIX);
+            v /= RADIX;
+        }
+    }
+
+    /**
+     * 자리수 n, 트윅별로 고정인 값: P와 Q 앞부분까지의 CBC-MAC 상태, Q 마지막 블록의 상수 접두부
+     */
+    private Layout layout(int n, byte[] tweak) {
+        if (n < MIN_DIGITS || n > MAX_DIGITS) {
+            throw new IllegalArgumentException("digit count out of range: " + n);
+        }
+        int u = n / 2;
+        int v = n - u;
+        // b = ceil(ceil(v * log2(radix)) / 8), d = 4 * ceil(b / 4) + 4
+        int b = (int) Math.ceil(Math.ceil(v * (Math.log(RADIX) / Math.log(2))) / 8);
+        int d = 4 * ((b + 3) / 4) + 4;
+        int t = tweak.length;
+
+        byte[] p = {1, 2, 1, 0, 0, RADIX, 10, (byte) u, (byte) (n >>> 24), (byte) (n >>> 16), (byte) (n >>> 8),
+                (byte) n, (byte) (t >>> 24), (byte) (t >>> 16), (byte) (t >>> 8), (byte) t};
+        // Q = T || 0^((-t-b-1) mod 16) || [i] || [NUM(B)]b
+        int qLen = t + Math.floorMod(-t - b - 1, 16) + 1 + b;
+        byte[] qPrefix = new byte[qLen];
+        System.arraycopy(tweak, 0, qPrefix, 0, t);
+
+        Cipher cipher = aes.get();
+        byte[] state;
+        try {
+            state = cipher.doFinal(p);
+            for (int off = 0; off + 16 < qLen; off += 16) {
+                byte[] blk = new byte[16];
+                for (int k = 0; k < 16; k++) {
+                    blk[k] = (byte) (qPrefix[off + k] ^ state[k]);
+                }
+                state = cipher.doFinal(blk);
+            }
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+        return new Layout(n, u, v, b, d, state, Arrays.copyOfRange(qPrefix, qLen - 16, qLen));
+    }
+
+    // 불변 객체: 모든 필드가 final 이므로 DigitsOp.layouts 배열로 동기화 없이 공개해도 다른 스레드가 완성된 값을 본다
+    static final class Layout {
+        final int n, u, v, b, d;
+        final byte[] state;
+        final byte[] lastBlockPrefix;
+
+        Layout(int n, int u, int v, int b, int d, byte[] state, byte[] lastBlockPrefix) {
+            this.n = n;
+            this.u = u;
+            this.v = v;
+            this.b = b;
+            this.d = d;
+            this.state = state;
+            this.lastBlockPrefix = lastBlockPrefix;
+        }
+    }
+
+    /**
+     * 문자열 안의 숫자만 FF1로 변환하는 마스킹 연산 (범위 밖 자리수의 값만 변환정보에 원본 저장)
+     */
+    static final class DigitsOp implements MaskPolicyEngine.MaskOp {
+        private final FpeCipher cipher;
+        private final byte[] tweak;
+        private final Layout[] layouts = new Layout[MAX_DIGITS + 1]; // 자리수별로 처음 사용할 때 계산
+
+        DigitsOp(FpeCipher cipher, byte[] tweak) {
+            this.cipher = cipher;
+            this.tweak = tweak;
+        }
+
+        @Override
+        public String mask(String value) {
+            return transform(value, true);
+        }
+
+        @Override
+        public String unmask(String masked) {
+            return transform(masked, false);
+        }
+
+        @Override
+        public boolean storesOriginal() {
+            return false;
+        }
+
+        // 범위 밖 자리수의 값은 '*'로만 바뀌어 키로 복원할 수 없으므로 원본을 저장
+        @Override
+        public boolean storesOriginal(String value) {
+            int n = 0;
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c >= '0' && c <= '9') {
+                    n++;
+                }
+            }
+            return n < MIN_DIGITS || n > MAX_DIGITS;
+        }
+
+        private String transform(String value, boolean encrypt) {
+            char[] chars = value.toCharArray();
+            char[] digits = new char[chars.length];
+            int n = 0;
+            for (char c : chars) {
+                if (c >= '0' && c <= '9') {
+                    digits[n++] = c;
+                }
+            }
+            if (n < MIN_DIGITS || n > MAX_DIGITS) {
+                if (!encrypt) {
+                    return null; // 복원할 수 없는 값
+                }
+                for (int i = 0; i < chars.length; i++) {
+                    if (chars[i] >= '0' && chars[i] <= '9') {
+                        chars[i] = '*';
+                    }
+                }
+                return new String(chars);
+            }
+            Layout l = layouts[n];
+            if (l == null) {
+                l = layouts[n] = cipher.layout(n, tweak); // 경쟁 시 같은 값을 중복 계산할 뿐
+            }
+            char[] x = n == digits.length ? digits : Arrays.copyOf(digits, n);
+            cipher.crypt(l, x, encrypt);
+            int k = 0;
+            for (int i = 0; i < chars.length; i++) {
+                if (chars[i] >= '0' && chars[i] <= '9') {
+                    chars[i] = x[k++];
+                }
+            }
+            return new String(chars);
+        }
+    }
+}
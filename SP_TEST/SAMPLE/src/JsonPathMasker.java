@@ -0,0 +1,212 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * JSON 경로별 스트리밍 마스킹
+ *
+ * 경로 규칙($.user.phone=phone)을 미리 트리로 컴파일해 두고, JsonReader로 토큰을 읽는 대로
+ * 현재 위치에 해당하는 규칙을 찾아 JsonWriter로 바로 내보낸다. 문서 전체를 트리로 만들지 않으므로
+ * 메모리 사용량은 중첩 깊이와 값 하나의 크기에만 비례한다.
+ *
+ * 경로 문법: $ 다음에 .이름 / .* (모든 키) / [*] (모든 배열 원소)
+ *   $.user.phone         user 객체의 phone 값
+ *   $.orders[*].card     orders 배열 각 원소의 card 값
+ *   $.user.*             user 객체의 모든 값
+ * 같은 위치에 이름 규칙과 * 규칙이 모두 있으면 이름 규칙이 우선한다. (마스킹하지 않는 이름 규칙으로 예외 지정)
+ * 규칙 위치의 값이 객체/배열이면 그 안의 모든 문자열/숫자 값에 적용한다.
+ * 마스킹된 숫자는 문자열로 기록되고, true/false/null은 그대로 둔다.
+ */
+public final class JsonPathMasker {
+
+    // 경로 트리 노드 (op가 있으면 이 위치의 값을 마스킹)
+    private static final class Node {
+        Map<String, Node> names;
+        Node anyName;
+        Node anyIndex;
+        MaskPolicyEngine.MaskOp op;
+
+        Node child(String name) {
+            Node n = names != null ? names.get(name) : null;
+            return n != null ? n : anyName;
+        }
+    }
+
+    // 현재 열려 있는 객체/배열 하나
+    private static final class Frame {
+        final boolean array;
+        final Node node;                     // 자식 규칙 (null이면 이 아래에 규칙 없음)
+        final MaskPolicyEngine.MaskOp op;    // 상위에서 물려받은 마스킹 (null이면 없음)
+        Node nextNode;                       // 객체: 방금 읽은 이름에 해당하는 규칙
+        MaskPolicyEngine.MaskOp nextOp;
+
+        Frame(boolean array, Node node, MaskPolicyEngine.MaskOp op) {
+            this.array = array;
+            this.node = node;
+            this.op = op;
+        }
+    }
+
+    private final Node root;
+
+    private JsonPathMasker(Node root) {
+        this.root = root;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 경로 규칙 모음 → JsonPathMasker
+     */
+    public static final class Builder {
+        private final Node root = new Node();
+        private int rules;
+
+        /**
+         * 규칙 추가. 경로 문법이 잘못되면 IllegalArgumentException
+         */
+        public Builder add(String path, MaskPolicyEngine.MaskOp op) {
+            if (!path.startsWith("$")) {
+                throw new IllegalArgumentException("경로는 $로 시작해야 함: " + path);
+            }
+            Node node = root;
+            int i = 1;
+            while (i < path.length()) {
+                char c = path.charAt(i);
+                if (c == '.') {
+                    int end = i + 1;
+                    while (end < path.length() && path.charAt(end) != '.' && path.charAt(end) != '[') {
+                        end++;
+                    }
+                    String name = path.substring(i + 1, end);
+                    if (name.isEmpty()) {
+                        throw new IllegalArgumentException("빈 이름: " + path);
+                    }
+                    if ("*".equals(name)) {
+                        node = node.anyName != null ? node.anyName : (node.anyName = new Node());
+                    } else {
+                        if (node.names == null) {
+                            node.names = new HashMap<>();
+                        }
+                        node = node.names.computeIfAbsent(name, k -> new Node());
+                    }
+                    i = end;
+                } else if (path.startsWith("[*]", i)) {
+                    node = node.anyIndex != null ? node.anyIndex : (node.anyIndex = new Node());
+                    i += 3;
+                } else {
+                    throw new IllegalArgumentException("지원하지 않는 경로: " + path);
+                }
+            }
+            node.op = op == MaskPolicyEngine.KEEP ? null : op; // 마스킹 안 함 규칙은 * 규칙 예외로 사용
+            rules++;
+            return this;
+        }
+
+        public boolean isEmpty() {
+            return rules == 0;
+        }
+
+        public JsonPathMasker build() {
+            return new JsonPathMasker(root);
+        }
+    }
+
+    /**
+     * JSON 문서 하나를 읽으면서 규칙을 적용해 기록 (형식이 잘못되면 IOException)
+     */
+    public void mask(Reader in, Writer out) throws IOException {
+        JsonReader reader = new JsonReader(in);
+        JsonWriter writer = new JsonWriter(out);
+        writer.setSerializeNulls(true);
+        ArrayDeque<Frame> stack = new ArrayDeque<>();
+        while (true) {
+            JsonToken token = reader.peek();
+            if (token == JsonToken.END_DOCUMENT) {
+                break;
+            }
+            Frame top = stack.peek();
+            switch (token) {
+                case NAME: {
+                    String name = reader.nextName();
+                    writer.name(name);
+                    top.nextNode = top.node != null ? top.node.child(name) : null;
+                    top.nextOp = top.op != null ? top.op : top.nextNode != null ? top.nextNode.op : null;
+                    continue;
+                }
+                case END_OBJECT:
+                    reader.endObject();
+                    writer.endObject();
+                    stack.pop();
+                    continue;
+                case END_ARRAY:
+                    reader.endArray();
+                    writer.endArray();
+                    stack.pop();
+                    continue;
+                default:
+                    break;
+            }
+
+            // 값: 이 위치의 규칙 결정
+            Node node;
+            MaskPolicyEngine.MaskOp op;
+            if (top == null) {
+                node = root;
+                op = root.op;
+            } else if (top.array) {
+                node = top.node != null ? top.node.anyIndex : null;
+                op = top.op != null ? top.op : node != null ? node.op : null;
+            } else {
+                node = top.nextNode;
+                op = top.nextOp;
+            }
+
+            switch (token) {
+                case BEGIN_OBJECT:
+                    reader.beginObject();
+                    writer.beginObject();
+                    stack.push(new Frame(false, node, op));
+                    break;
+                case BEGIN_ARRAY:
+                    reader.beginArray();
+                    writer.beginArray();
+                    stack.push(new Frame(true, node, op));
+                    break;
+                case STRING: {
+                    String value = reader.nextString();
+                    writer.value(op != null ? op.mask(value) : value);
+                    break;
+                }
+                case NUMBER: {
+                    String value = reader.nextString(); // 원문 그대로 (정밀도 손실 없음)
+                    if (op != null) {
+                        writer.value(op.mask(value));
+                    } else {
+                        writer.jsonValue(value);
+                    }
+                    break;
+                }
+                case BOOLEAN:
+                    writer.value(reader.nextBoolean());
+                    break;
+                case NULL:
+                    reader.nextNull();
+                    writer.nullValue();
+                    break;
+                default:
+                    throw new IOException("예상하지 못한 JSON 토큰: " + token);
+            }
+        }
+        writer.flush();
+    }
+}
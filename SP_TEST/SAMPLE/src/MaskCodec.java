@@ -0,0 +1,217 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 마스킹 요청 처리용 재사용 버퍼 (요청 스레드마다 하나)
+ *
+ * 요청 본문을 바이트 그대로 읽어 '|' 위치만 기록하고, 응답 JSON은 미리 만들어 둔 필드 키 바이트와
+ * 값을 출력 버퍼에 바로 쓴다. 문자열 분할/Map/Gson 직렬화 없이 필드 값 문자열만 새로 만든다.
+ * (마스킹하지 않는 필드는 문자열로 바꾸지 않고 바이트를 그대로 복사)
+ */
+final class MaskCodec {
+    private static final int MAX_KEYS = 64;
+    private static final int DEFAULT_BUFFER = 1024;
+    private static final int DEFAULT_FIELDS = 16;
+    private static final int RETAIN_BUFFER = 64 * 1024; // 요청 뒤에도 유지할 최대 버퍼 크기
+    private static final int RETAIN_FIELDS = 1024;
+    private static final byte[][] FIELD_KEYS = new byte[MAX_KEYS][]; // "field1":"  (0번째 필드 앞에는 쉼표 없음)
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final ThreadLocal<MaskCodec> LOCAL = ThreadLocal.withInitial(MaskCodec::new);
+
+    static {
+        for (int i = 0; i < MAX_KEYS; i++) {
+            FIELD_KEYS[i] = fieldKey(i);
+        }
+    }
+
+    private byte[] in = new byte[DEFAULT_BUFFER];
+    private int inLength;
+    private int[] starts = new int[DEFAULT_FIELDS];
+    private int[] ends = new int[DEFAULT_FIELDS];
+    private int fieldCount;
+    private byte[] out = new byte[DEFAULT_BUFFER];
+    private int outLength;
+
+    static MaskCodec get() {
+        return LOCAL.get();
+    }
+
+    private static byte[] fieldKey(int index) {
+        return ("\"field" + (index + 1) + "\":\"").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * 요청 본문을 읽어 필드 위치 계산 (줄바꿈 문자는 제거, UTF-8)
+     * 분할 규칙은 String.split("\\|")와 같음: 끝의 빈 필드는 버리고, 빈 본문은 빈 필드 하나
+     */
+    void read(InputStream body) throws IOException {
+        int len = 0;
+        int n;
+        while ((n = body.read(in, len, in.length - len)) > 0) {
+            len += n;
+            if (len == in.length) {
+                in = Arrays.copyOf(in, in.length * 2);
+            }
+        }
+        // 기존 readLine 기반 읽기와 같이 줄바꿈 문자는 이어 붙임
+        int w = 0;
+        for (int r = 0; r < len; r++) {
+            byte b = in[r];
+            if (b != '\n' && b != '\r') {
+                in[w++] = b;
+            }
+        }
+        inLength = w;
+
+        fieldCount = 0;
+        int start = 0;
+        for (int i = 0; i <= inLength; i++) {
+            if (i == inLength || in[i] == '|') {
+                if (fieldCount == starts.length) {
+                    starts = Arrays.copyOf(starts, fieldCount * 2);
+                    ends = Arrays.copyOf(ends, fieldCount * 2);
+                }
+                starts[fieldCount] = start;
+                ends[fieldCount] = i;
+                fieldCount++;
+                start = i + 1;
+            }
+        }
+        if (inLength > 0) {
+            while (fieldCount > 0 && starts[fieldCount - 1] == ends[fieldCount - 1]) {
+                fieldCount--;
+            }
+        }
+    }
+
+    int fieldCount() {
+        return fieldCount;
+    }
+
+    String field(int i) {
+        return new String(in, starts[i], ends[i] - starts[i], StandardCharsets.UTF_8);
+    }
+
+    // ---- 응답 JSON 작성 ----
+
+    void beginObject() {
+        outLength = 0;
+        ensure(1);
+        out[outLength++] = '{';
+    }
+
+    // "fieldN":"값"  (값은 문자열)
+    void writeField(int i, String value) {
+        writeKey(i);
+        writeEscaped(value);
+        ensure(1);
+        out[outLength++] = '"';
+    }
+
+    // "fieldN":"값"  (요청 본문의 i번째 필드 바이트를 그대로)
+    void writeRawField(int i) {
+        writeKey(i);
+        for (int p = starts[i]; p < ends[i]; p++) {
+            writeEscapedByte(in[p]);
+        }
+        ensure(1);
+        out[outLength++] = '"';
+    }
+
+    void endObject() {
+        ensure(1);
+        out[outLength++] = '}';
+    }
+
+    void writeTo(OutputStream os) throws IOException {
+        os.write(out, 0, outLength);
+    }
+
+    int length() {
+        return outLength;
+    }
+
+    /**
+     * 요청 처리 후 호출: 큰 요청으로 늘어난 버퍼는 기본 크기로 되돌린다.
+     * 스레드마다 버퍼를 가지므로 가끔 오는 큰 요청 때문에 모든 요청 스레드가 큰 버퍼를 계속 쥐고 있지 않게 한다.
+     */
+    void trim() {
+        if (in.length > RETAIN_BUFFER) {
+            in = new byte[DEFAULT_BUFFER];
+            inLength = 0;
+        }
+        if (out.length > RETAIN_BUFFER) {
+            out = new byte[DEFAULT_BUFFER];
+            outLength = 0;
+        }
+        if (starts.length > RETAIN_FIELDS) {
+            starts = new int[DEFAULT_FIELDS];
+            ends = new int[DEFAULT_FIELDS];
+            fieldCount = 0;
+        }
+    }
+
+    private void writeKey(int i) {
+        byte[] key = i < MAX_KEYS ? FIELD_KEYS[i] : fieldKey(i);
+        ensure(key.length + 1);
+        if (i > 0) {
+            out[outLength++] = ',';
+        }
+        System.arraycopy(key, 0, out, outLength, key.length);
+        outLength += key.length;
+    }
+
+    // 문자열을 JSON 이스케이프하며 UTF-8로 기록
+    private void writeEscaped(String s) {
+        ensure(s.length() * 3);
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                writeEscapedByte((byte) c);
+            } else if (c < 0x800) {
+                ensure(2);
+                out[outLength++] = (byte) (0xC0 | (c >> 6));
+                out[outLength++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length()
+                    && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                ensure(4);
+                out[outLength++] = (byte) (0xF0 | (cp >> 18));
+                out[outLength++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                out[outLength++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                out[outLength++] = (byte) (0x80 | (cp & 0x3F));
+            } else {
+                ensure(3);
+                out[outLength++] = (byte) (0xE0 | (c >> 12));
+                out[outLength++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                out[outLength++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private void writeEscapedByte(byte b) {
+        ensure(6);
+        if (b == '"' || b == '\\') {
+            out[outLength++] = '\\';
+            out[outLength++] = b;
+        } else if (b >= 0 && b < 0x20) {
+            out[outLength++] = '\\';
+            out[outLength++] = 'u';
+            out[outLength++] = '0';
+            out[outLength++] = '0';
+            out[outLength++] = HEX[b >> 4];
+            out[outLength++] = HEX[b & 0xF];
+        } else {
+            out[outLength++] = b;
+        }
+    }
+
+    private void ensure(int extra) {
+        if (outLength + extra > out.length) {
+            out = Arrays.copyOf(out, Math.max(out.length * 2, outLength + extra));
+        }
+    }
+}
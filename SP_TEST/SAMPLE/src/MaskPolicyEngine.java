@@ -0,0 +1,324 @@
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 마스킹 정책 엔진
+ *
+ * - 고객별 정책 파일(customerId_maskpolicy.txt)을 한 번만 읽어 필드별 마스킹 연산 배열(Plan)로 컴파일
+ * - 컴파일된 Plan은 크기가 제한된 LRU 캐시에 보관
+ * - WatchService로 정책 파일 변경을 감지하면 해당 고객의 캐시를 무효화
+ * - 정책 파일의 tier=등급 줄은 지표 집계용 고객 등급 (없으면 standard)
+ * - $로 시작하는 줄($.user.phone=phone)은 JSON 문서용 경로 규칙 (JsonPathMasker)
+ * 따라서 요청 처리 중에는 파일을 읽거나 정책 문자열을 파싱하지 않는다.
+ */
+public class MaskPolicyEngine {
+    private static final String POLICY_SUFFIX = "_maskpolicy.txt";
+    public static final String DEFAULT_TIER = "standard";
+    public static final String UNKNOWN_TIER = "unknown";
+    public static final int MAX_FIELDS = 1024; // fieldN의 N 상한 (연산 배열 크기)
+
+    private final Path policyDir;
+    private final Map<String, Plan> cache;
+    private final Map<String, Boolean> missing; // 정책을 읽지 못한 고객 (tier 조회용, cache 로 동기화)
+    private final AtomicLong generation = new AtomicLong(); // 무효화 발생 시 증가 (캐시 경쟁 방지)
+    private final WatchService watcher;
+
+    public MaskPolicyEngine(Path policyDir, int maxCustomers) throws IOException {
+        this.policyDir = policyDir;
+        this.cache = new LinkedHashMap<String, Plan>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Plan> eldest) {
+                return size() > maxCustomers;
+            }
+        };
+        this.missing = new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > maxCustomers;
+            }
+        };
+        this.watcher = FileSystems.getDefault().newWatchService();
+        policyDir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+        Thread t = new Thread(this::watchLoop, "mask-policy-watcher");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /**
+     * 고객별 컴파일된 마스킹 계획 조회 (캐시에 없을 때만 파일을 읽어 컴파일)
+     */
+    public Plan plan(String customerId) throws IOException {
+        synchronized (cache) {
+            Plan plan = cache.get(customerId);
+            if (plan != null) {
+                return plan;
+            }
+        }
+        long gen = generation.get();
+        Plan plan = compile(Files.readAllLines(policyDir.resolve(customerId + POLICY_SUFFIX)), customerId,
+                customerId + POLICY_SUFFIX);
+        synchronized (cache) {
+            // 읽는 도중 파일이 바뀌었으면 캐시하지 않음 (다음 요청에서 다시 컴파일)
+            if (generation.get() == gen) {
+                cache.put(customerId, plan);
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * 고객 등급 (정책을 읽을 수 없는 고객이면 unknown)
+     * 읽지 못한 고객도 기억해 두어 요청마다 없는 파일을 다시 읽지 않는다. 파일이 생기면 감시 스레드가 지운다.
+     */
+    public String tier(String customerId) {
+        long gen;
+        synchronized (cache) {
+            if (missing.containsKey(customerId)) {
+                return UNKNOWN_TIER;
+            }
+            gen = generation.get();
+        }
+        try {
+            return plan(customerId).tier();
+        } catch (IOException | RuntimeException e) {
+            synchronized (cache) {
+                if (generation.get() == gen) {
+                    missing.put(customerId, Boolean.TRUE);
+                }
+            }
+            return UNKNOWN_TIER;
+        }
+    }
+
+    public void invalidate(String customerId) {
+        generation.incrementAndGet();
+        synchronized (cache) {
+            cache.remove(customerId);
+            missing.remove(customerId);
+        }
+    }
+
+    // 정책 파일 변경 감지 → 캐시 무효화
+    private void watchLoop() {
+        try {
+            while (true) {
+                WatchKey key = watcher.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        generation.incrementAndGet();
+                        synchronized (cache) {
+                            cache.clear();
+                            missing.clear();
+                        }
+                        continue;
+                    }
+                    String fileName = event.context().toString();
+                    if (fileName.endsWith(POLICY_SUFFIX)) {
+                        invalidate(fileName.substring(0, fileName.length() - POLICY_SUFFIX.length()));
+                    }
+                }
+                key.reset();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // 종료
+        }
+    }
+
+    /**
+     * 정책 파일 내용 컴파일 (예: field1=name, field2=phone, field3=1-2, tier=gold, $.user.phone=phone)
+     */
+    static Plan compile(List<String> lines) {
+        return compile(lines, "", "정책");
+    }
+
+    /**
+     * customerId: 고객별로 결과가 달라지는 연산(fpe)의 트윅
+     * source: 오류 메시지에 쓸 정책 파일 이름
+     * fieldN 키의 N이 1~MAX_FIELDS 범위의 정수가 아니면 IllegalArgumentException
+     */
+    static Plan compile(List<String> lines, String customerId, String source) {
+        MaskOp[] ops = new MaskOp[0];
+        String tier = DEFAULT_TIER;
+        JsonPathMasker.Builder jsonRules = JsonPathMasker.builder();
+        for (String ln : lines) {
+            String[] kv = ln.split("=");
+            if (kv.length == 2 && kv[0].trim().startsWith("$")) {
+                try {
+                    jsonRules.add(kv[0].trim(), compileOp(kv[1].trim(), customerId));
+                } catch (IllegalArgumentException e) {
+                    // 잘못된 경로 규칙은 무시
+                }
+                continue;
+            }
+            if (kv.length == 2 && "tier".equals(kv[0].trim()) && !kv[1].trim().isEmpty()) {
+                tier = kv[1].trim();
+                continue;
+            }
+            if (kv.length != 2 || !kv[0].startsWith("field")) {
+                continue;
+            }
+            int index = fieldIndex(kv[0], source);
+            if (index >= ops.length) {
+                ops = Arrays.copyOf(ops, index + 1);
+            }
+            ops[index] = compileOp(kv[1].trim(), customerId);
+        }
+        return new Plan(ops, tier, jsonRules.isEmpty() ? null : jsonRules.build());
+    }
+
+    // "fieldN" → N-1
+    private static int fieldIndex(String key, String source) {
+        try {
+            int n = Integer.parseInt(key.substring("field".length()).trim());
+            if (n >= 1 && n <= MAX_FIELDS) {
+                return n - 1;
+            }
+        } catch (NumberFormatException e) {
+            // 아래에서 거부
+        }
+        throw new IllegalArgumentException(source + ": 잘못된 필드 키 '" + key.trim() + "' (field1 ~ field" + MAX_FIELDS + " 형식)");
+    }
+
+    /**
+     * 마스킹 규칙 하나를 연산으로 컴파일
+     * - "phone": 전화번호 4~7번째 자리 마스킹
+     * - "시작-끝": 해당 인덱스 범위 마스킹 (예: "1-2")
+     * - "pii", "pii:email,phone": 자유 텍스트에서 개인정보를 찾아 마스킹 (PiiScanner)
+     * - "fpe": 숫자를 키로 형식 보존 암호화, 키만으로 복원 (FpeCipher, 숫자 6~32자리가 아닌 값만 변환정보 저장)
+     * - 그 외: 마스킹하지 않음
+     */
+    public static MaskOp compileOp(String spec) {
+        return compileOp(spec, "");
+    }
+
+    public static MaskOp compileOp(String spec, String customerId) {
+        if ("fpe".equals(spec)) {
+            return FpeCipher.shared().op(customerId);
+        }
+        if ("phone".equals(spec)) {
+            return PHONE;
+        }
+        if (spec.equals("pii") || spec.startsWith("pii:")) {
+            return PiiScanner.parse(spec);
+        }
+        int dash = spec.indexOf('-');
+        if (dash > 0) {
+            try {
+                int start = Integer.parseInt(spec.substring(0, dash).trim());
+                int end = Integer.parseInt(spec.substring(dash + 1).trim());
+                return new RangeMask(start, end);
+            } catch (NumberFormatException e) {
+                // 범위 형식이 아니면 마스킹하지 않음
+            }
+        }
+        return KEEP;
+    }
+
+    /**
+     * 필드 하나에 적용할 마스킹 연산
+     */
+    public interface MaskOp {
+        String mask(String value);
+
+        // 언마스킹을 위해 원본을 변환정보에 저장해야 하는지
+        default boolean storesOriginal() {
+            return true;
+        }
+
+        // 이 값의 원본을 저장해야 하는지 (값에 따라 마스킹 값만으로 복원할 수 없는 연산이면 재정의)
+        default boolean storesOriginal(String value) {
+            return storesOriginal();
+        }
+
+        // 마스킹 값만으로 원본을 복원 (복원할 수 없는 연산이면 null)
+        default String unmask(String masked) {
+            return null;
+        }
+    }
+
+    // 마스킹하지 않음
+    public static final MaskOp KEEP = new MaskOp() {
+        @Override
+        public String mask(String value) {
+            return value;
+        }
+
+        @Override
+        public boolean storesOriginal() {
+            return false;
+        }
+    };
+
+    // 전화번호 부분 마스킹 (3번째~6번째 자리 '*')
+    public static final MaskOp PHONE = phone -> {
+        if (phone.length() > 6)
+            return phone.substring(0, 3) + "****" + phone.substring(7);
+        return phone;
+    };
+
+    // 인덱스 범위 마스킹 (start~end, 값 길이를 넘는 부분은 무시)
+    static class RangeMask implements MaskOp {
+        private final int start;
+        private final int end;
+
+        RangeMask(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public String mask(String value) {
+            if (start >= value.length()) {
+                return value;
+            }
+            char[] chars = value.toCharArray();
+            for (int i = start; i <= end && i < chars.length; i++) {
+                chars[i] = '*';
+            }
+            return new String(chars);
+        }
+    }
+
+    /**
+     * 고객별 컴파일된 마스킹 계획 (필드 순서대로의 연산 배열)
+     */
+    public static final class Plan {
+        private final MaskOp[] fieldOps;
+        private final String tier;
+        private final JsonPathMasker jsonMasker;
+
+        Plan(MaskOp[] fieldOps, String tier, JsonPathMasker jsonMasker) {
+            this.fieldOps = fieldOps;
+            this.tier = tier;
+            this.jsonMasker = jsonMasker;
+        }
+
+        // JSON 문서용 경로 규칙 (정책에 경로 규칙이 없으면 null)
+        public JsonPathMasker jsonMasker() {
+            return jsonMasker;
+        }
+
+        public String tier() {
+            return tier;
+        }
+
+        // index: 0부터 시작 (field1 = 0)
+        public MaskOp op(int index) {
+            MaskOp op = index < fieldOps.length ? fieldOps[index] : null;
+            return op != null ? op : KEEP;
+        }
+    }
+}
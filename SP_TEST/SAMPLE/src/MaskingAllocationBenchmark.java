@@ -0,0 +1,108 @@
+import com.google.gson.Gson;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * /mask 요청 처리 경로의 요청당 할당량/시간 비교: 기존(readLine + split + LinkedHashMap + Gson) vs MaskCodec
+ *
+ * 사용법: java MaskingAllocationBenchmark [반복 횟수(기본 1000000)]
+ * 핸들러 안의 본문 파싱 → 마스킹 → JSON 작성 구간만 측정한다 (Jetty 요청/응답 객체, 변환정보 저장 제외).
+ * 할당량은 com.sun.management.ThreadMXBean의 스레드별 할당 바이트로 잰다.
+ */
+public class MaskingAllocationBenchmark {
+    private static final Gson gson = new Gson();
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        byte[] body = "홍길동|01012345678|hong@example.com|서울시 강남구|VIP".getBytes(StandardCharsets.UTF_8);
+        MaskPolicyEngine.Plan plan = MaskPolicyEngine.compile(Arrays.asList("field1=1-2", "field2=phone"));
+        com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        System.out.println("기존  : " + legacy(body, plan));
+        System.out.println("Codec : " + codec(body, plan));
+
+        // 워밍업
+        for (int r = 0; r < 3; r++) {
+            runLegacy(body, plan, iterations / 4);
+            runCodec(body, plan, iterations / 4);
+        }
+        long tid = Thread.currentThread().getId();
+        for (int r = 0; r < 3; r++) {
+            long a0 = mx.getThreadAllocatedBytes(tid);
+            long t0 = System.nanoTime();
+            long sink = runLegacy(body, plan, iterations);
+            long t1 = System.nanoTime();
+            long a1 = mx.getThreadAllocatedBytes(tid);
+            sink += runCodec(body, plan, iterations);
+            long t2 = System.nanoTime();
+            long a2 = mx.getThreadAllocatedBytes(tid);
+            System.out.printf("기존  : %6.0f bytes/op %6.0f ns/op%n",
+                    (a1 - a0) / (double) iterations, (t1 - t0) / (double) iterations);
+            System.out.printf("Codec : %6.0f bytes/op %6.0f ns/op (sink %d)%n",
+                    (a2 - a1) / (double) iterations, (t2 - t1) / (double) iterations, sink);
+        }
+    }
+
+    private static long runLegacy(byte[] body, MaskPolicyEngine.Plan plan, int n) throws IOException {
+        long total = 0;
+        for (int i = 0; i < n; i++) {
+            total += legacy(body, plan).length();
+        }
+        return total;
+    }
+
+    private static long runCodec(byte[] body, MaskPolicyEngine.Plan plan, int n) throws IOException {
+        ByteArrayInputStream in = new ByteArrayInputStream(body);
+        OutputStream out = BenchmarkSupport.nullOutput(); // Jetty 출력 버퍼 대용
+        long total = 0;
+        for (int i = 0; i < n; i++) {
+            in.reset();
+            MaskCodec c = MaskCodec.get();
+            c.read(in);
+            MaskingApiServer.maskFields(c, plan);
+            c.writeTo(out);
+            total += c.length();
+        }
+        return total;
+    }
+
+    // 기존 핸들러와 같은 처리: 본문 readLine → split → 필드별 마스킹(Map) + 원본 배열 → Gson 직렬화
+    private static String legacy(byte[] body, MaskPolicyEngine.Plan plan) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        BufferedReader br = new BufferedReader(
+                new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8));
+        String line;
+        while ((line = br.readLine()) != null)
+            sb.append(line);
+        String[] fields = sb.toString().split("\\|");
+        Map<String, String> masked = new LinkedHashMap<>();
+        String[] originals = new String[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            MaskPolicyEngine.MaskOp op = plan.op(i);
+            masked.put("field" + (i + 1), op.mask(fields[i]));
+            if (op.storesOriginal(fields[i])) {
+                originals[i] = fields[i];
+            }
+        }
+        return gson.toJson(masked);
+    }
+
+    private static String codec(byte[] body, MaskPolicyEngine.Plan plan) throws IOException {
+        MaskCodec c = MaskCodec.get();
+        c.read(new ByteArrayInputStream(body));
+        MaskingApiServer.maskFields(c, plan);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        c.writeTo(out);
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,471 @@
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.handler.AbstractHandler;
+import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.util.MultiMap;
+import org.eclipse.jetty.util.UrlEncoded;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.*;
+import java.util.*;
+import java.nio.file.*;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class MaskingApiServer {
+    // Gson 객체 (JSON 직렬화/역직렬화용)
+    private static final Gson gson = new Gson();
+
+    // 고객별 컴파일된 마스킹 정책 (정책 파일 변경 시 자동 무효화)
+    private static MaskPolicyEngine policyEngine;
+
+    // 변환정보 추가 전용 로그 (보관기간 7일, 1시간마다 컴팩션)
+    private static TransInfoStore transInfoStore;
+    private static final long TRANSINFO_RETENTION_MS = 7L * 24 * 60 * 60 * 1000;
+    private static final long TRANSINFO_COMPACTION_MS = 60L * 60 * 1000;
+
+    // 과부하 차단(CoDel): 허용 큐 대기시간 목표와 판정 구간
+    private static final long CODEL_TARGET_MS = 5;
+    private static final long CODEL_INTERVAL_MS = 100;
+    private static CoDelAdmission codel;
+
+    // 엔드포인트 × 고객 등급별 지연시간/처리량/오류 지표 (GET /admin/metrics)
+    private static final MaskingMetrics metrics = new MaskingMetrics();
+
+    // JSON 문서 마스킹 결과를 응답 시작 전에 메모리에 모을 최대 크기
+    private static final int JSON_BUFFER_LIMIT = 1024 * 1024;
+
+    // NDJSON 대량 마스킹 레코드의 최대 필드 번호 (fieldN의 N)
+    private static final int MAX_RECORD_FIELDS = MaskPolicyEngine.MAX_FIELDS;
+
+    // Jetty 서버 구축 및 엔드포인트 매핑
+    public static void main(String[] args) throws Exception {
+        policyEngine = new MaskPolicyEngine(Paths.get("."), 1000);
+        transInfoStore = new TransInfoStore(Paths.get("transinfo.log"), TRANSINFO_RETENTION_MS,
+                TRANSINFO_COMPACTION_MS);
+
+        // 스레드풀 큐 대기시간이 계속 목표를 넘으면 새 요청은 바로 503 응답
+        codel = new CoDelAdmission(CODEL_TARGET_MS, CODEL_INTERVAL_MS);
+        Server server = new Server(codel.newThreadPool(200));
+        ServerConnector connector = new ServerConnector(server);
+        connector.setPort(8080); // 8080 포트 사용
+        server.addConnector(connector);
+        server.setHandler(codel.wrap(new Handler()));
+        server.start();
+
+        // Jetty HttpClient 샘플 (서버 동작 확인용)
+        HttpClient client = new HttpClient();
+        client.start();
+        // 요청/응답 예시는 필요시 아래 참고
+    }
+
+    // Jetty 9 Handler에서 요청별 분기 처리
+    public static class Handler extends AbstractHandler {
+        @Override
+        public void handle(String target, Request baseRequest, 
+                           HttpServletRequest request, HttpServletResponse response) 
+                throws IOException {
+
+            long startTime = System.nanoTime(); // 작업시작 시간
+            MaskingMetrics.Endpoint endpoint = null;
+            String customerId = null;
+            long records = 0;
+            boolean failed = true;
+            try {
+                if ("/mask/batch".equals(target) && "POST".equalsIgnoreCase(request.getMethod())) {
+                    // 대량 마스킹 엔드포인트: 요청 본문을 줄 단위로 읽으면서 마스킹 결과를 바로 응답으로 흘려보냄
+                    endpoint = MaskingMetrics.Endpoint.MASK_BATCH;
+                    customerId = queryParameter(request, "customerId"); // 본문을 폼으로 파싱하지 않도록 쿼리에서만 읽음
+                    String contentType = request.getContentType();
+                    boolean ndjson = contentType != null && contentType.startsWith("application/x-ndjson");
+                    response.setContentType(ndjson ? "application/x-ndjson;charset=UTF-8" : "text/plain;charset=UTF-8");
+                    records = maskBatch(request, response, customerId, ndjson);
+                } else if ("/mask/json".equals(target) && "POST".equalsIgnoreCase(request.getMethod())) {
+                    // JSON 문서 마스킹 엔드포인트: 정책의 경로 규칙($.user.phone=phone)을 스트리밍으로 적용
+                    endpoint = MaskingMetrics.Endpoint.MASK_JSON;
+                    customerId = queryParameter(request, "customerId");
+                    if (!maskJson(request, response, customerId)) {
+                        response.sendError(HttpServletResponse.SC_BAD_REQUEST, "JSON 형식 오류");
+                        baseRequest.setHandled(true);
+                        return;
+                    }
+                    records = 1;
+                } else if ("/mask".equals(target) && "POST".equalsIgnoreCase(request.getMethod())) {
+                    // 마스킹 엔드포인트
+                    endpoint = MaskingMetrics.Endpoint.MASK;
+                    MaskCodec codec = MaskCodec.get();
+                    codec.read(request.getInputStream());
+                    customerId = request.getParameter("customerId"); // 고객별 마스킹 정책 적용
+                    long recordId = maskData(codec, customerId);
+                    if (recordId > 0) {
+                        response.setHeader("X-Record-Id", String.valueOf(recordId)); // 언마스킹 시 recordId 파라미터로 사용
+                    }
+                    writeJson(response, codec);
+                    records = 1;
+                } else if ("/unmask".equals(target) && "POST".equalsIgnoreCase(request.getMethod())) {
+                    // 언마스킹 엔드포인트
+                    endpoint = MaskingMetrics.Endpoint.UNMASK;
+                    MaskCodec codec = MaskCodec.get();
+                    codec.read(request.getInputStream());
+                    customerId = request.getParameter("customerId");
+                    Long recordId; // 없으면 고객의 최근 변환정보 사용
+                    try {
+                        String param = request.getParameter("recordId");
+                        recordId = param != null ? Long.valueOf(param) : null;
+                    } catch (NumberFormatException e) {
+                        response.sendError(HttpServletResponse.SC_BAD_REQUEST, "recordId 형식 오류");
+                        baseRequest.setHandled(true);
+                        return;
+                    }
+                    unmaskData(codec, customerId, recordId);
+                    writeJson(response, codec);
+                    records = 1;
+                } else if ("/admin/metrics".equals(target) && "GET".equalsIgnoreCase(request.getMethod())) {
+                    // 지표 조회 엔드포인트 (지표 집계 대상 아님)
+                    JsonObject snapshot = metrics.snapshot();
+                    snapshot.add("admission", codel.metrics());
+                    response.setContentType("application/json;charset=UTF-8");
+                    response.getWriter().write(gson.toJson(snapshot));
+                }
+                response.setStatus(HttpServletResponse.SC_OK);
+                baseRequest.setHandled(true);
+                failed = false;
+            } finally {
+                if (endpoint != null) {
+                    String tier = customerId != null ? policyEngine.tier(customerId) : MaskPolicyEngine.UNKNOWN_TIER;
+                    metrics.record(endpoint, tier, System.nanoTime() - startTime, records, failed);
+                }
+            }
+        }
+    }
+
+    // 쿼리 문자열 파라미터 (getParameter와 달리 요청 본문을 읽지 않음)
+    private static String queryParameter(HttpServletRequest request, String name) {
+        MultiMap<String> params = new MultiMap<>();
+        if (request.getQueryString() != null) {
+            UrlEncoded.decodeUtf8To(request.getQueryString(), params);
+        }
+        return params.getValue(name, 0);
+    }
+
+    // 응답 버퍼의 JSON을 그대로 전송
+    private static void writeJson(HttpServletResponse response, MaskCodec codec) throws IOException {
+        response.setContentType("application/json;charset=UTF-8");
+        response.setContentLength(codec.length());
+        try {
+            codec.writeTo(response.getOutputStream());
+        } finally {
+            codec.trim();
+        }
+    }
+
+    /**
+     * 마스킹 정책 적용 후 마스킹결과 JSON을 codec 출력 버퍼에 작성하고, 변환정보 로그에 저장한 레코드 ID 반환
+     * (저장할 원본이 없으면 0)
+     */
+    static long maskData(MaskCodec codec, String customerId) throws IOException {
+        // 예) "name|phone|email"
+        String[] originals = maskFields(codec, policyEngine.plan(customerId));
+        if (originals == null) {
+            return 0; // 모든 필드가 키로 복원 가능하거나 마스킹하지 않음: 변환정보 저장 생략
+        }
+        // 변환정보 저장 (언마스킹용). 다른 요청들과 묶여 한 번에 디스크에 기록될 때까지 대기
+        try {
+            return transInfoStore.append(customerId, originals).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("변환정보 저장 중단");
+        } catch (ExecutionException e) {
+            throw new IOException("변환정보 저장 실패", e.getCause());
+        }
+    }
+
+    // 필드별 마스킹 결과를 JSON으로 작성하고 변환정보에 저장할 원본 반환 (저장할 필드가 없으면 null)
+    static String[] maskFields(MaskCodec codec, MaskPolicyEngine.Plan plan) {
+        int count = codec.fieldCount();
+        String[] originals = null;
+        codec.beginObject();
+        for (int i = 0; i < count; i++) {
+            MaskPolicyEngine.MaskOp op = plan.op(i);
+            if (op == MaskPolicyEngine.KEEP) {
+                codec.writeRawField(i);
+                continue;
+            }
+            String value = codec.field(i);
+            codec.writeField(i, op.mask(value));
+            if (op.storesOriginal(value)) {
+                if (originals == null) {
+                    originals = new String[count];
+                }
+                originals[i] = value;
+            }
+        }
+        codec.endObject();
+        return originals;
+    }
+
+    /**
+     * JSON 문서 마스킹 (요청을 읽는 대로 마스킹, 문서 전체를 트리로 만들지 않음)
+     * 경로 규칙이 없는 고객이면 문서를 그대로 돌려준다. 변환정보는 저장하지 않는다.
+     *
+     * 결과가 JSON_BUFFER_LIMIT 이하이면 문서 끝까지 검증한 뒤 Content-Length와 함께 보내고,
+     * 형식 오류면 아무것도 보내지 않고 false를 반환한다 (호출자가 400 응답).
+     * 한도를 넘으면 그때부터 응답(200, chunked)으로 흘려보내므로 뒤에서 형식 오류가 나면 상태 코드를 바꿀 수 없다.
+     * 이때는 예외를 던져 마지막 chunk 없이 연결을 끊으므로 클라이언트는 200이어도 불완전한 응답으로 인식해야 한다.
+     */
+    private static boolean maskJson(HttpServletRequest request, HttpServletResponse response, String customerId)
+            throws IOException {
+        JsonPathMasker masker = policyEngine.plan(customerId).jsonMasker();
+        if (masker == null) {
+            masker = JsonPathMasker.builder().build();
+        }
+        response.setContentType("application/json;charset=UTF-8");
+        Reader in = new BufferedReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8),
+                16 * 1024);
+        DeferredOutput deferred = new DeferredOutput(response, JSON_BUFFER_LIMIT);
+        Writer out = new BufferedWriter(new OutputStreamWriter(deferred, StandardCharsets.UTF_8), 16 * 1024);
+        try {
+            masker.mask(in, out);
+            out.flush();
+        } catch (IOException | RuntimeException e) {
+            if (deferred.streaming()) {
+                throw e; // 이미 응답을 시작함: 정상 종료하지 않고 연결을 끊음
+            }
+            return false;
+        }
+        deferred.finish();
+        return true;
+    }
+
+    /**
+     * limit 바이트까지는 메모리에 모으고, 넘으면 모은 내용부터 응답으로 바로 흘려보내는 출력
+     * 끝까지 한도 안이면 finish()에서 Content-Length를 정해 한 번에 보낸다.
+     */
+    private static final class DeferredOutput extends OutputStream {
+        private final HttpServletResponse response;
+        private final int limit;
+        private ByteArrayOutputStream buffer = new ByteArrayOutputStream(16 * 1024);
+        private OutputStream direct;
+
+        DeferredOutput(HttpServletResponse response, int limit) {
+            this.response = response;
+            this.limit = limit;
+        }
+
+        boolean streaming() {
+            return direct != null;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (direct == null && buffer.size() + len > limit) {
+                direct = response.getOutputStream();
+                buffer.writeTo(direct);
+                buffer = null;
+            }
+            if (direct != null) {
+                direct.write(b, off, len);
+            } else {
+                buffer.write(b, off, len);
+            }
+        }
+
+        void finish() throws IOException {
+            if (direct == null) {
+                response.setContentLength(buffer.size());
+                buffer.writeTo(response.getOutputStream());
+            } else {
+                direct.flush();
+            }
+        }
+    }
+
+    /**
+     * 대량 마스킹 (요청/응답 모두 스트리밍, 메모리 사용량은 본문 크기와 무관)
+     * - 파이프 형식: 입력 "name|phone|email" 한 줄 → 출력 "레코드ID|마스킹값|..." 한 줄
+     * - NDJSON 형식: 입력 {"field1":"..",...} 한 줄 → 출력 {"recordId":N,"field1":"..",...} 한 줄
+     *   정책은 키 순서가 아니라 fieldN의 번호로 적용한다. 잘못된 줄은 {"error":"..."} 한 줄로 응답하고 계속 진행한다.
+     * 변환정보는 줄마다 기다리지 않고 로그에 넘기며(그룹 커밋), 마지막 레코드가 디스크에 기록된 뒤 응답을 끝낸다.
+     * 저장할 원본이 없는 줄(fpe 등 키로 복원 가능한 필드만 있는 경우)은 레코드 ID가 0이다.
+     * 반환: 처리한 레코드(빈 줄 제외) 수
+     */
+    private static long maskBatch(HttpServletRequest request, HttpServletResponse response, String customerId,
+            boolean ndjson) throws IOException {
+        MaskPolicyEngine.Plan plan = policyEngine.plan(customerId);
+        BufferedReader in = new BufferedReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8));
+        Writer out = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8),
+                16 * 1024);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        TransInfoStore.RecordFuture last = null;
+        String line;
+        long records = 0;
+        try {
+            while ((line = in.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                records++;
+                if (ndjson) {
+                    JsonObject record;
+                    List<String> keys;
+                    int[] indexes;
+                    try {
+                        record = JsonParser.parseString(line).getAsJsonObject();
+                        keys = new ArrayList<>(record.keySet());
+                        indexes = fieldIndexes(record, keys);
+                    } catch (RuntimeException e) {
+                        JsonObject error = new JsonObject();
+                        error.addProperty("error", e instanceof IllegalArgumentException
+                                ? "invalid record: " + e.getMessage() : "invalid record");
+                        out.write(gson.toJson(error));
+                        out.write('\n');
+                        continue;
+                    }
+                    // 원본은 필드 번호 위치에 저장 (fieldN → N-1, 없는 번호는 null)
+                    int count = 0;
+                    for (int index : indexes) {
+                        count = Math.max(count, index + 1);
+                    }
+                    String[] originals = new String[count];
+                    String[] masked = new String[keys.size()];
+                    for (int k = 0; k < masked.length; k++) {
+                        MaskPolicyEngine.MaskOp op = plan.op(indexes[k]);
+                        String value = record.get(keys.get(k)).getAsString();
+                        originals[indexes[k]] = op.storesOriginal(value) ? value : null;
+                        masked[k] = op.mask(value);
+                    }
+                    long recordId = 0;
+                    if (hasOriginal(originals)) {
+                        last = appendTransInfo(customerId, originals, failure);
+                        recordId = last.recordId;
+                    }
+                    JsonObject result = new JsonObject();
+                    result.addProperty("recordId", recordId);
+                    for (int k = 0; k < masked.length; k++) {
+                        result.addProperty(keys.get(k), masked[k]);
+                    }
+                    out.write(gson.toJson(result));
+                } else {
+                    String[] fields = line.split("\\|");
+                    String[] originals = new String[fields.length];
+                    for (int i = 0; i < fields.length; i++) {
+                        MaskPolicyEngine.MaskOp op = plan.op(i);
+                        originals[i] = op.storesOriginal(fields[i]) ? fields[i] : null;
+                        fields[i] = op.mask(fields[i]);
+                    }
+                    long recordId = 0;
+                    if (hasOriginal(originals)) {
+                        last = appendTransInfo(customerId, originals, failure);
+                        recordId = last.recordId;
+                    }
+                    out.write(Long.toString(recordId));
+                    for (String f : fields) {
+                        out.write('|');
+                        out.write(f);
+                    }
+                }
+                out.write('\n');
+            }
+            // 로그는 순서대로 기록되므로 마지막 레코드가 기록되면 앞의 레코드도 모두 기록된 것
+            if (last != null) {
+                last.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("변환정보 저장 중단");
+        } catch (ExecutionException e) {
+            throw new IOException("변환정보 저장 실패", e.getCause());
+        }
+        if (failure.get() != null) {
+            // 이미 보낸 응답을 되돌릴 수 없으므로 연결을 끊어 클라이언트가 실패로 인식하게 함
+            throw new IOException("변환정보 저장 실패", failure.get());
+        }
+        out.flush();
+        return records;
+    }
+
+    /**
+     * NDJSON 레코드 키의 필드 위치 (fieldN → N-1, 1 ≤ N ≤ MAX_RECORD_FIELDS)
+     * fieldN 형식이 아닌 키, 같은 번호의 중복, 문자열/숫자/불리언이 아닌 값은 IllegalArgumentException
+     */
+    private static int[] fieldIndexes(JsonObject record, List<String> keys) {
+        int[] indexes = new int[keys.size()];
+        BitSet seen = new BitSet();
+        for (int k = 0; k < indexes.length; k++) {
+            String key = keys.get(k);
+            if (!key.matches("field[1-9][0-9]{0,3}")) {
+                throw new IllegalArgumentException("field key must be field1.." + MAX_RECORD_FIELDS + ": " + key);
+            }
+            int n = Integer.parseInt(key.substring("field".length()));
+            if (n > MAX_RECORD_FIELDS || seen.get(n)) {
+                throw new IllegalArgumentException("field key out of range or duplicated: " + key);
+            }
+            seen.set(n);
+            if (!record.get(key).isJsonPrimitive()) {
+                throw new IllegalArgumentException("field value must be a string: " + key);
+            }
+            indexes[k] = n - 1;
+        }
+        return indexes;
+    }
+
+    private static TransInfoStore.RecordFuture appendTransInfo(String customerId, String[] originals,
+            AtomicReference<Throwable> failure) throws InterruptedException {
+        TransInfoStore.RecordFuture f = transInfoStore.append(customerId, originals);
+        f.whenComplete((id, e) -> {
+            if (e != null) {
+                failure.compareAndSet(null, e);
+            }
+        });
+        return f;
+    }
+
+    private static boolean hasOriginal(String[] originals) {
+        for (String o : originals) {
+            if (o != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 언마스킹 변환 (결과 JSON은 codec 출력 버퍼에 작성)
+     * - 키로 복원 가능한 필드(fpe)는 마스킹 값을 바로 복호화
+     * - 나머지는 변환정보 로그에서 원본데이터 치환 (recordId가 없으면 고객의 최근 변환정보)
+     * 변환정보는 키로 복원하지 못한 필드가 처음 나올 때만 읽는다 (fpe 범위 밖 값 포함).
+     */
+    static void unmaskData(MaskCodec codec, String customerId, Long recordId) throws IOException {
+        MaskPolicyEngine.Plan plan = policyEngine.plan(customerId);
+        String[] original = null;
+        boolean looked = false;
+        codec.beginObject();
+        for (int i = 0; i < codec.fieldCount(); i++) {
+            MaskPolicyEngine.MaskOp op = plan.op(i);
+            String restored = op == MaskPolicyEngine.KEEP ? null : op.unmask(codec.field(i));
+            if (restored == null && op != MaskPolicyEngine.KEEP && !looked) {
+                original = transInfoStore.lookup(customerId,
+                        recordId != null ? recordId : transInfoStore.latestRecordId(customerId));
+                looked = true;
+            }
+            if (restored != null) {
+                codec.writeField(i, restored);
+            } else if (original != null && i < original.length && original[i] != null) {
+                codec.writeField(i, original[i]);
+            } else {
+                codec.writeRawField(i);
+            }
+        }
+        codec.endObject();
+    }
+}
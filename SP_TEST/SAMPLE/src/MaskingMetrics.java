@@ -0,0 +1,175 @@
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.gson.JsonObject;
+
+/**
+ * 마스킹 API 지표 (엔드포인트 × 고객 등급별)
+ *
+ * 요청마다 나노초 지연시간을 로그-선형 히스토그램(2의 거듭제곱 구간마다 8칸, 오차 12.5% 이내)에 넣고
+ * 요청 수/처리 레코드 수/오류 수를 센다. 기록은 배열 칸 하나 증가와 LongAdder 몇 개뿐이라
+ * 요청 경로에 락이나 할당이 없고, 백분위수는 조회(snapshot) 시에만 계산한다.
+ */
+public class MaskingMetrics {
+
+    public enum Endpoint {
+        MASK("/mask"), UNMASK("/unmask"), MASK_BATCH("/mask/batch"), MASK_JSON("/mask/json");
+
+        final String path;
+
+        Endpoint(String path) {
+            this.path = path;
+        }
+    }
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final String[] PERCENTILE_KEYS = {"p50Nanos", "p90Nanos", "p99Nanos", "p999Nanos"};
+
+    private final long startNanos = System.nanoTime();
+    // 엔드포인트별 등급 → 지표 (등급 수는 정책 파일에 설정된 값으로 제한됨)
+    // 생성자에서 모든 엔드포인트를 채운 뒤 바꾸지 않으므로 동기화 없이 조회
+    private final Map<Endpoint, ConcurrentHashMap<String, Series>> series = new EnumMap<>(Endpoint.class);
+
+    public MaskingMetrics() {
+        for (Endpoint e : Endpoint.values()) {
+            series.put(e, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * 요청 하나 기록
+     * records: 처리한 레코드 수 (/mask, /unmask, /mask/json은 1, /mask/batch는 줄 수)
+     */
+    public void record(Endpoint endpoint, String tier, long nanos, long records, boolean error) {
+        ConcurrentHashMap<String, Series> byTier = series.get(endpoint);
+        Series s = byTier.get(tier);
+        if (s == null) {
+            s = byTier.computeIfAbsent(tier, t -> new Series());
+        }
+        s.record(nanos, records, error);
+    }
+
+    /**
+     * 전체 지표 조회: {"uptimeSeconds":..., "endpoints":{"/mask":{"gold":{...}}}}
+     */
+    public JsonObject snapshot() {
+        JsonObject root = new JsonObject();
+        double uptime = (System.nanoTime() - startNanos) / 1e9;
+        root.addProperty("uptimeSeconds", Math.round(uptime));
+        JsonObject endpoints = new JsonObject();
+        for (Endpoint e : Endpoint.values()) {
+            JsonObject tiers = new JsonObject();
+            series.get(e).forEach((tier, s) -> tiers.add(tier, s.snapshot(uptime)));
+            endpoints.add(e.path, tiers);
+        }
+        root.add("endpoints", endpoints);
+        return root;
+    }
+
+    /**
+     * 엔드포인트 × 등급 하나의 지표
+     */
+    static final class Series {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder records = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final Histogram latency = new Histogram();
+
+        void record(long nanos, long recordCount, boolean error) {
+            requests.increment();
+            records.add(recordCount);
+            if (error) {
+                errors.increment();
+            }
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            latency.record(nanos);
+        }
+
+        JsonObject snapshot(double uptimeSeconds) {
+            long count = requests.sum();
+            JsonObject obj = new JsonObject();
+            obj.addProperty("requests", count);
+            obj.addProperty("records", records.sum());
+            obj.addProperty("errors", errors.sum());
+            obj.addProperty("requestsPerSecond", uptimeSeconds > 0 ? count / uptimeSeconds : 0);
+            JsonObject lat = new JsonObject();
+            lat.addProperty("meanNanos", count > 0 ? totalNanos.sum() / count : 0);
+            long max = maxNanos.get();
+            long[] values = latency.percentiles(PERCENTILES);
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                lat.addProperty(PERCENTILE_KEYS[i], Math.min(values[i], max)); // 칸 상한이 실제 최대값을 넘지 않게
+            }
+            lat.addProperty("maxNanos", max);
+            obj.add("latency", lat);
+            return obj;
+        }
+    }
+
+    /**
+     * 로그-선형 구간 히스토그램
+     * 값 v < 8은 그대로 칸 번호, 그 외에는 최상위 비트 위치(2의 거듭제곱 구간)마다 바로 아래 3비트로 8칸을 나눈다.
+     */
+    static final class Histogram {
+        private static final int SUB_BITS = 3;
+        private static final int SUB_COUNT = 1 << SUB_BITS;
+        private static final int BUCKETS = (64 - SUB_BITS + 1) << SUB_BITS;
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+        void record(long value) {
+            counts.incrementAndGet(bucket(Math.max(value, 0)));
+        }
+
+        static int bucket(long v) {
+            if (v < SUB_COUNT) {
+                return (int) v;
+            }
+            int exp = 63 - Long.numberOfLeadingZeros(v);
+            int sub = (int) (v >>> (exp - SUB_BITS)) & (SUB_COUNT - 1);
+            return ((exp - SUB_BITS + 1) << SUB_BITS) + sub;
+        }
+
+        // 칸의 상한 (해당 칸에 들어가는 가장 큰 값)
+        static long upperBound(int bucket) {
+            if (bucket < SUB_COUNT) {
+                return bucket;
+            }
+            int exp = (bucket >> SUB_BITS) + SUB_BITS - 1;
+            long sub = bucket & (SUB_COUNT - 1);
+            return (1L << exp) + ((sub + 1) << (exp - SUB_BITS)) - 1;
+        }
+
+        // 백분위수별 값 (해당 칸의 상한, 기록이 없으면 0)
+        long[] percentiles(double[] percentiles) {
+            long[] snapshot = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                snapshot[i] = counts.get(i);
+                total += snapshot[i];
+            }
+            long[] result = new long[percentiles.length];
+            if (total == 0) {
+                return result;
+            }
+            for (int p = 0; p < percentiles.length; p++) {
+                long rank = Math.max(1, (long) Math.ceil(total * percentiles[p] / 100));
+                long seen = 0;
+                for (int i = 0; i < BUCKETS; i++) {
+                    seen += snapshot[i];
+                    if (seen >= rank) {
+                        result[p] = upperBound(i);
+                        break;
+                    }
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,321 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 원본 정보 파일(고객명:원본데이터) 해시 인덱스
+ *
+ * - build: 데이터 파일 옆에 인덱스 파일(데이터파일명.idx)을 만든다
+ *   인덱스는 개방 주소법 해시 테이블이며 슬롯마다 [이름 해시 int][이름 길이 int][줄 시작 위치+1 long]
+ * - open: 데이터 파일과 인덱스 파일을 mmap 하고, 조회 시 슬롯 몇 개 + 레코드 하나만 읽는다
+ * - 2GB가 넘는 파일은 1GB 단위 세그먼트로 나눠서 mmap 한다
+ * 같은 고객명이 여러 번 나오면 처음 나온 줄을 사용한다 (기존 순차 검색과 동일).
+ */
+public class OriginalDataIndex implements Closeable {
+    private static final int MAGIC = 0x4F444958; // "ODIX"
+    private static final int HEADER_SIZE = 32;   // [MAGIC int][슬롯 수 int][데이터 크기 long][데이터 수정시각 long][예비 8]
+    private static final int SLOT_SIZE = 16;
+    private static final int SEGMENT_BITS = 30;  // mmap 세그먼트 1GB
+
+    private final MappedFile data;
+    private final MappedFile index;
+    private final int slotMask;
+
+    private OriginalDataIndex(MappedFile data, MappedFile index) {
+        this.data = data;
+        this.index = index;
+        this.slotMask = index.getInt(4) - 1;
+    }
+
+    public static Path indexPath(Path dataFile) {
+        return dataFile.resolveSibling(dataFile.getFileName() + ".idx");
+    }
+
+    /**
+     * 인덱스를 열어 조회 준비 (인덱스가 없거나 데이터 파일과 맞지 않으면 새로 생성)
+     */
+    public static OriginalDataIndex open(Path dataFile) throws IOException {
+        Path idx = indexPath(dataFile);
+        if (!isFresh(dataFile, idx)) {
+            build(dataFile);
+        }
+        return new OriginalDataIndex(MappedFile.open(dataFile, false, 0), MappedFile.open(idx, false, 0));
+    }
+
+    private static boolean isFresh(Path dataFile, Path idx) throws IOException {
+        if (!Files.exists(idx) || Files.size(idx) < HEADER_SIZE) {
+            return false;
+        }
+        try (MappedFile header = MappedFile.open(idx, false, 0)) {
+            return header.getInt(0) == MAGIC
+                    && header.getLong(8) == Files.size(dataFile)
+                    && header.getLong(16) == Files.getLastModifiedTime(dataFile).toMillis();
+        }
+    }
+
+    /**
+     * 인덱스 파일 생성 (데이터 파일을 두 번 순차로 읽음: 줄 수 세기 → 슬롯 채우기)
+     */
+    public static void build(Path dataFile) throws IOException {
+        Path idx = indexPath(dataFile);
+        Path tmp = idx.resolveSibling(idx.getFileName() + ".tmp");
+        try (MappedFile data = MappedFile.open(dataFile, false, 0)) {
+            long size = data.size();
+            long lines = 1;
+            for (long pos = 0; pos < size; pos++) {
+                if (data.get(pos) == '\n') {
+                    lines++;
+                }
+            }
+            // 적재율 50% 이하가 되도록 2의 거듭제곱 크기 선택
+            long slots = Long.highestOneBit(Math.max(8, lines)) << 2;
+            if (slots > (1 << 30)) {
+                throw new IOException("too many records for index: " + lines);
+            }
+
+            Files.deleteIfExists(tmp);
+            try (MappedFile table = MappedFile.open(tmp, true, HEADER_SIZE + slots * SLOT_SIZE)) {
+                int mask = (int) slots - 1;
+                long lineStart = 0;
+                long colon = -1;
+                int colons = 0;
+                for (long pos = 0; pos <= size; pos++) {
+                    byte b = pos < size ? data.get(pos) : (byte) '\n';
+                    if (b == ':') {
+                        colons++;
+                        colon = pos;
+                    } else if (b == '\n') {
+                        // "이름:값" 형태(콜론 1개, 값이 비어있지 않음)인 줄만 인덱싱
+                        long valueEnd = pos > lineStart && data.get(pos - 1) == '\r' ? pos - 1 : pos;
+                        if (colons == 1 && valueEnd > colon + 1) {
+                            insert(table, mask, data, lineStart, (int) (colon - lineStart));
+                        }
+                        lineStart = pos + 1;
+                        colons = 0;
+                    }
+                }
+                table.putInt(0, MAGIC);
+                table.putInt(4, (int) slots);
+                table.putLong(8, size);
+                table.putLong(16, Files.getLastModifiedTime(dataFile).toMillis());
+                table.force();
+            }
+        }
+        Files.move(tmp, idx, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void insert(MappedFile table, int mask, MappedFile data, long lineStart, int nameLength) {
+        int hash = hash(data, lineStart, nameLength);
+        for (int i = hash & mask;; i = (i + 1) & mask) {
+            long slot = HEADER_SIZE + (long) i * SLOT_SIZE;
+            long stored = table.getLong(slot + 8);
+            if (stored == 0) {
+                table.putInt(slot, hash);
+                table.putInt(slot + 4, nameLength);
+                table.putLong(slot + 8, lineStart + 1);
+                return;
+            }
+            if (table.getInt(slot) == hash && table.getInt(slot + 4) == nameLength
+                    && data.regionEquals(stored - 1, data, lineStart, nameLength)) {
+                return; // 먼저 나온 같은 이름 유지
+            }
+        }
+    }
+
+    /**
+     * 고객명으로 원본 데이터 조회 (없으면 null)
+     */
+    public String lookup(String customerName) {
+        byte[] name = customerName.getBytes(StandardCharsets.UTF_8);
+        return find(name, hash(name), hash(name) & slotMask);
+    }
+
+    /**
+     * 여러 고객명 일괄 조회. 슬롯 순서로 정렬해서 인덱스를 앞에서부터 한 번만 훑는다.
+     * 반환: 입력 순서대로 고객명 → 원본 데이터 (없으면 null)
+     */
+    public Map<String, String> lookupAll(Collection<String> customerNames) {
+        List<Probe> probes = new ArrayList<>(customerNames.size());
+        for (String n : customerNames) {
+            probes.add(new Probe(n));
+        }
+        List<Probe> sorted = new ArrayList<>(probes);
+        sorted.sort(Comparator.comparingInt(p -> p.hash & slotMask));
+        for (Probe p : sorted) {
+            p.result = find(p.name, p.hash, p.hash & slotMask);
+        }
+        Map<String, String> results = new LinkedHashMap<>();
+        for (Probe p : probes) {
+            results.put(p.customerName, p.result);
+        }
+        return results;
+    }
+
+    private String find(byte[] name, int hash, int start) {
+        for (int i = start;; i = (i + 1) & slotMask) {
+            long slot = HEADER_SIZE + (long) i * SLOT_SIZE;
+            long stored = index.getLong(slot + 8);
+            if (stored == 0) {
+                return null;
+            }
+            if (index.getInt(slot) == hash && index.getInt(slot + 4) == name.length
+                    && data.regionEquals(stored - 1, name)) {
+                return readValue(stored - 1 + name.length + 1);
+            }
+        }
+    }
+
+    // 값 시작 위치부터 줄 끝까지 읽기
+    private String readValue(long pos) {
+        long end = pos;
+        while (end < data.size() && data.get(end) != '\n') {
+            end++;
+        }
+        if (end > pos && data.get(end - 1) == '\r') {
+            end--;
+        }
+        byte[] value = new byte[(int) (end - pos)];
+        for (int i = 0; i < value.length; i++) {
+            value[i] = data.get(pos + i);
+        }
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    // FNV-1a
+    private static int hash(byte[] b) {
+        int h = 0x811C9DC5;
+        for (byte x : b) {
+            h = (h ^ (x & 0xFF)) * 0x01000193;
+        }
+        return h;
+    }
+
+    private static int hash(MappedFile f, long pos, int length) {
+        int h = 0x811C9DC5;
+        for (int i = 0; i < length; i++) {
+            h = (h ^ (f.get(pos + i) & 0xFF)) * 0x01000193;
+        }
+        return h;
+    }
+
+    @Override
+    public void close() throws IOException {
+        data.close();
+        index.close();
+    }
+
+    static class Probe {
+        final String customerName;
+        final byte[] name;
+        final int hash;
+        String result;
+
+        Probe(String customerName) {
+            this.customerName = customerName;
+            this.name = customerName.getBytes(StandardCharsets.UTF_8);
+            this.hash = OriginalDataIndex.hash(name);
+        }
+    }
+
+    /**
+     * 1GB 세그먼트 단위로 mmap 한 파일 (int/long 값은 세그먼트 경계에 걸치지 않게 정렬해서 사용)
+     */
+    static class MappedFile implements Closeable {
+        private final FileChannel channel;
+        private final MappedByteBuffer[] segments;
+        private final long size;
+
+        private MappedFile(FileChannel channel, MappedByteBuffer[] segments, long size) {
+            this.channel = channel;
+            this.segments = segments;
+            this.size = size;
+        }
+
+        // writable이면 size 크기로 새로 만들어 읽기/쓰기 mmap
+        static MappedFile open(Path path, boolean writable, long size) throws IOException {
+            FileChannel ch = writable
+                    ? FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                            StandardOpenOption.WRITE)
+                    : FileChannel.open(path, StandardOpenOption.READ);
+            if (!writable) {
+                size = ch.size();
+            }
+            long segmentSize = 1L << SEGMENT_BITS;
+            MappedByteBuffer[] segs = new MappedByteBuffer[(int) ((size + segmentSize - 1) >>> SEGMENT_BITS)];
+            for (int i = 0; i < segs.length; i++) {
+                long start = (long) i << SEGMENT_BITS;
+                segs[i] = ch.map(writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY, start,
+                        Math.min(segmentSize, size - start));
+            }
+            return new MappedFile(ch, segs, size);
+        }
+
+        long size() {
+            return size;
+        }
+
+        byte get(long pos) {
+            return segments[(int) (pos >>> SEGMENT_BITS)].get((int) (pos & ((1 << SEGMENT_BITS) - 1)));
+        }
+
+        int getInt(long pos) {
+            return segments[(int) (pos >>> SEGMENT_BITS)].getInt((int) (pos & ((1 << SEGMENT_BITS) - 1)));
+        }
+
+        long getLong(long pos) {
+            return segments[(int) (pos >>> SEGMENT_BITS)].getLong((int) (pos & ((1 << SEGMENT_BITS) - 1)));
+        }
+
+        void putInt(long pos, int v) {
+            segments[(int) (pos >>> SEGMENT_BITS)].putInt((int) (pos & ((1 << SEGMENT_BITS) - 1)), v);
+        }
+
+        void putLong(long pos, long v) {
+            segments[(int) (pos >>> SEGMENT_BITS)].putLong((int) (pos & ((1 << SEGMENT_BITS) - 1)), v);
+        }
+
+        boolean regionEquals(long pos, byte[] b) {
+            if (pos + b.length > size) {
+                return false;
+            }
+            for (int i = 0; i < b.length; i++) {
+                if (get(pos + i) != b[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean regionEquals(long pos, MappedFile other, long otherPos, int length) {
+            for (int i = 0; i < length; i++) {
+                if (get(pos + i) != other.get(otherPos + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void force() {
+            for (MappedByteBuffer seg : segments) {
+                seg.force();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
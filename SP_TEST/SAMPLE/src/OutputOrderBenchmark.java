@@ -0,0 +1,68 @@
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * STATIC 모드 출력 순서 비교: ORDERED(작업 순서) vs COMPLETION(완료 순서)
+ *
+ * 사용법: java OutputOrderBenchmark [작업 수(기본 900)] [건당 처리 ms(기본 2)] [청크 크기 ...(기본 1 0), 0은 자동]
+ * 배분은 A:50%, B:30%, C:20%이다. 청크를 작업 순서대로 에이전트에 번갈아 배정하므로 ORDERED도 뒤 구간 에이전트가
+ * 앞 에이전트 몫을 기다리지 않고, 완료 시간이 COMPLETION과 같아야 한다. (가장 많이 맡은 A의 처리 시간)
+ * ORDERED 실행은 결과가 작업 순서대로 나왔는지와 에이전트별 처리 건수도 확인한다.
+ */
+public class OutputOrderBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int jobCount = args.length > 0 ? Integer.parseInt(args[0]) : 900;
+		int costMillis = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+		int[] chunkSizes = { 1, 0 };
+		if (args.length > 2) {
+			chunkSizes = new int[args.length - 2];
+			for (int i = 2; i < args.length; i++) {
+				chunkSizes[i - 2] = Integer.parseInt(args[i]);
+			}
+		}
+		Map<String, Integer> allocations = BenchmarkSupport.allocations(jobCount);
+		int[] jobs = BenchmarkSupport.jobs(jobCount);
+
+		System.out.printf("작업 %,d건, 건당 %d ms, 배분 %s (A 몫만의 처리 시간 약 %,d ms)%n", jobCount, costMillis,
+				allocations, (long) allocations.get("A") * costMillis);
+		for (int chunkSize : chunkSizes) {
+			String label = chunkSize > 0 ? "청크 " + chunkSize : "청크 자동";
+			measure(label + " COMPLETION", allocations, jobs, costMillis, chunkSize, ResultStream.Order.COMPLETION);
+			measure(label + " ORDERED", allocations, jobs, costMillis, chunkSize, ResultStream.Order.ORDERED);
+		}
+	}
+
+	private static void measure(String name, Map<String, Integer> allocations, int[] jobs, int costMillis,
+			int chunkSize, ResultStream.Order order) throws Exception {
+		ThreadDistributedWorker worker = new ThreadDistributedWorker(allocations);
+		worker.setJobCost((agent, job) -> costMillis);
+		worker.setChunkSize(chunkSize);
+		worker.setOutputOrder(order, 64);
+		Map<String, Integer> counts = new LinkedHashMap<>();
+		int[] lastJob = { 0 };
+		boolean[] inOrder = { true };
+		long start = System.nanoTime();
+		// 에이전트별 처리 건수 출력은 측정 결과와 섞이지 않도록 버림
+		PrintStream console = System.out;
+		System.setOut(new PrintStream(BenchmarkSupport.nullOutput()));
+		try (ResultSink sink = ResultSink.callback(line -> {
+			// "A 처리 결과: 17 => 34"
+			String agent = line.substring(0, line.indexOf(' '));
+			int job = Integer.parseInt(line.substring(line.indexOf(": ") + 2, line.indexOf(" =>")));
+			counts.merge(agent, 1, Integer::sum);
+			inOrder[0] &= job > lastJob[0];
+			lastJob[0] = job;
+		})) {
+			worker.setResultSink(sink);
+			worker.distributeAndExecuteTasks(jobs);
+		} finally {
+			System.setOut(console);
+		}
+		long elapsed = System.nanoTime() - start;
+		System.out.printf("%-22s: %,6d ms, 처리 %s%s%n", name, TimeUnit.NANOSECONDS.toMillis(elapsed), counts,
+				order == ResultStream.Order.ORDERED ? (inOrder[0] ? ", 작업 순서 출력 확인" : ", 작업 순서 아님!") : "");
+	}
+}
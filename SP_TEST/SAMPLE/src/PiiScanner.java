@@ -0,0 +1,328 @@
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 자유 텍스트 개인정보(PII) 단일 패스 탐지/마스킹
+ *
+ * 정규식을 유형별로 한 번씩 돌리는 대신, 텍스트를 앞에서부터 한 번만 훑으면서
+ * 각 위치에서 시작할 수 있는 유형만 우선순위대로 확인하고 찾는 즉시 마스킹한다.
+ * 유형별 규칙은 UTIL PatternParser의 정규식과 같다.
+ *   URL      https?://[^\s]+                                 → https://host/***
+ *   EMAIL    [A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\.[A-Za-z]{2,}  → h***@example.com
+ *   PHONE    \b\d{3}-\d{4}-\d{4}\b                           → 010-****-5678
+ *   DATE     \d{4}-\d{2}-\d{2}                               → 2024-**-**
+ *   IP       \b\d{1,3}(\.\d{1,3}){3}\b                       → 192.168.*.*
+ *   PRICE    ₩[\d,]+                                         → ₩***
+ *   NAME     [가-힣]{2,4}                                     → 홍**
+ * 같은 위치에서 여러 유형이 가능하면 위 순서가 우선한다.
+ *
+ * 정책 파일에서 "pii" (전체 유형) 또는 "pii:email,phone" 처럼 사용한다.
+ */
+public final class PiiScanner implements MaskPolicyEngine.MaskOp {
+
+    public enum Type {
+        URL, EMAIL, PHONE, DATE, IP, PRICE, KOREAN_NAME
+    }
+
+    /**
+     * 탐지 결과 (text.substring(start, end))
+     */
+    public static final class Match {
+        public final Type type;
+        public final int start;
+        public final int end;
+
+        Match(Type type, int start, int end) {
+            this.type = type;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private final boolean url, email, phone, date, ip, price, name;
+
+    public PiiScanner(EnumSet<Type> types) {
+        this.url = types.contains(Type.URL);
+        this.email = types.contains(Type.EMAIL);
+        this.phone = types.contains(Type.PHONE);
+        this.date = types.contains(Type.DATE);
+        this.ip = types.contains(Type.IP);
+        this.price = types.contains(Type.PRICE);
+        this.name = types.contains(Type.KOREAN_NAME);
+    }
+
+    /**
+     * 정책 규칙 파싱: "pii" 또는 "pii:email,phone,date,ip,url,name,price" (모르는 유형은 무시)
+     */
+    public static PiiScanner parse(String spec) {
+        int colon = spec.indexOf(':');
+        if (colon < 0) {
+            return new PiiScanner(EnumSet.allOf(Type.class));
+        }
+        EnumSet<Type> types = EnumSet.noneOf(Type.class);
+        for (String t : spec.substring(colon + 1).split(",")) {
+            String key = t.trim().toUpperCase(Locale.ROOT);
+            if ("NAME".equals(key)) {
+                types.add(Type.KOREAN_NAME);
+            }
+            for (Type type : Type.values()) {
+                if (type.name().equals(key)) {
+                    types.add(type);
+                }
+            }
+        }
+        return new PiiScanner(types);
+    }
+
+    @Override
+    public String mask(String text) {
+        StringBuilder out = new StringBuilder(text.length());
+        scan(text, out, null);
+        return out.toString();
+    }
+
+    // 탐지만 (마스킹 없음)
+    public List<Match> find(String text) {
+        List<Match> matches = new ArrayList<>();
+        scan(text, null, matches);
+        return matches;
+    }
+
+    /**
+     * 단일 패스 스캔. out이 있으면 마스킹 결과를, matches가 있으면 탐지 위치를 채운다.
+     */
+    private void scan(String s, StringBuilder out, List<Match> matches) {
+        int n = s.length();
+        int copied = 0;       // out에 복사된 위치
+        int noEmailUntil = 0; // 이 위치 전까지는 이메일 시작 불가 (이미 확인한 로컬파트 구간)
+        int i = 0;
+        while (i < n) {
+            char c = s.charAt(i);
+            Type type = null;
+            int end = -1;
+
+            if (c == 'h' && url && (end = matchUrl(s, i)) > 0) {
+                type = Type.URL;
+            }
+            if (type == null && email && i >= noEmailUntil && isLocalChar(c)) {
+                end = matchEmail(s, i);
+                if (end > 0) {
+                    type = Type.EMAIL;
+                } else {
+                    noEmailUntil = -end; // 로컬파트 구간 끝 (이 구간 안에서는 다시 시도하지 않음)
+                }
+            }
+            if (type == null && c >= '0' && c <= '9') {
+                boolean boundary = i == 0 || !isWordChar(s.charAt(i - 1));
+                if (phone && boundary && (end = matchPhone(s, i)) > 0) {
+                    type = Type.PHONE;
+                } else if (date && (end = matchDate(s, i)) > 0) {
+                    type = Type.DATE;
+                } else if (ip && boundary && (end = matchIp(s, i)) > 0) {
+                    type = Type.IP;
+                }
+            }
+            if (type == null && c == '₩' && price && (end = matchPrice(s, i)) > 0) {
+                type = Type.PRICE;
+            }
+            if (type == null && isHangul(c) && name && (end = matchName(s, i)) > 0) {
+                type = Type.KOREAN_NAME;
+            }
+
+            if (type == null) {
+                i++;
+                continue;
+            }
+            if (matches != null) {
+                matches.add(new Match(type, i, end));
+            }
+            if (out != null) {
+                out.append(s, copied, i);
+                appendMasked(out, type, s, i, end);
+                copied = end;
+            }
+            i = end;
+        }
+        if (out != null) {
+            out.append(s, copied, n);
+        }
+    }
+
+    // ---- 유형별 매칭: 성공 시 끝 위치, 실패 시 -1 ----
+
+    private static int matchUrl(String s, int i) {
+        int p;
+        if (s.startsWith("http://", i)) {
+            p = i + 7;
+        } else if (s.startsWith("https://", i)) {
+            p = i + 8;
+        } else {
+            return -1;
+        }
+        int start = p;
+        while (p < s.length() && !Character.isWhitespace(s.charAt(p))) {
+            p++;
+        }
+        return p > start ? p : -1;
+    }
+
+    // 실패 시 -(로컬파트 구간 끝) 반환
+    private static int matchEmail(String s, int i) {
+        int n = s.length();
+        int p = i;
+        while (p < n && isLocalChar(s.charAt(p))) {
+            p++;
+        }
+        if (p >= n || s.charAt(p) != '@') {
+            return -p;
+        }
+        int domStart = p + 1;
+        int d = domStart;
+        while (d < n && isDomainChar(s.charAt(d))) {
+            d++;
+        }
+        // 도메인 끝의 '.', '-', 숫자 등은 최상위 도메인이 될 수 없으므로 제외 (정규식 역추적과 동일)
+        int end = d;
+        while (end > domStart && !isAsciiLetter(s.charAt(end - 1))) {
+            end--;
+        }
+        int dot = s.lastIndexOf('.', end - 1);
+        if (dot <= domStart || end - dot - 1 < 2 || (end < n && isWordChar(s.charAt(end)))) {
+            return -p;
+        }
+        for (int k = dot + 1; k < end; k++) {
+            if (!isAsciiLetter(s.charAt(k))) {
+                return -p;
+            }
+        }
+        return end;
+    }
+
+    private static int matchPhone(String s, int i) {
+        int p = digits(s, i, 3, 3);
+        if (p < 0 || !charAt(s, p, '-')) return -1;
+        p = digits(s, p + 1, 4, 4);
+        if (p < 0 || !charAt(s, p, '-')) return -1;
+        p = digits(s, p + 1, 4, 4);
+        if (p < 0 || (p < s.length() && isWordChar(s.charAt(p)))) return -1;
+        return p;
+    }
+
+    private static int matchDate(String s, int i) {
+        int p = digits(s, i, 4, 4);
+        if (p < 0 || !charAt(s, p, '-')) return -1;
+        p = digits(s, p + 1, 2, 2);
+        if (p < 0 || !charAt(s, p, '-')) return -1;
+        p = digits(s, p + 1, 2, 2);
+        return p;
+    }
+
+    private static int matchIp(String s, int i) {
+        int p = i;
+        for (int octet = 0; octet < 4; octet++) {
+            if (octet > 0) {
+                if (!charAt(s, p, '.')) return -1;
+                p++;
+            }
+            p = digits(s, p, 1, 3);
+            if (p < 0) return -1;
+        }
+        if (p < s.length() && isWordChar(s.charAt(p))) return -1;
+        return p;
+    }
+
+    private static int matchPrice(String s, int i) {
+        int p = i + 1;
+        while (p < s.length() && ((s.charAt(p) >= '0' && s.charAt(p) <= '9') || s.charAt(p) == ',')) {
+            p++;
+        }
+        return p > i + 1 ? p : -1;
+    }
+
+    private static int matchName(String s, int i) {
+        int p = i;
+        while (p < s.length() && p - i < 4 && isHangul(s.charAt(p))) {
+            p++;
+        }
+        return p - i >= 2 ? p : -1;
+    }
+
+    // 숫자 min~max개 (다음 문자 확인은 호출하는 쪽에서)
+    private static int digits(String s, int i, int min, int max) {
+        int p = i;
+        while (p < s.length() && p - i < max && s.charAt(p) >= '0' && s.charAt(p) <= '9') {
+            p++;
+        }
+        return p - i >= min ? p : -1;
+    }
+
+    // ---- 마스킹 ----
+
+    private static void appendMasked(StringBuilder out, Type type, String s, int start, int end) {
+        switch (type) {
+            case URL: {
+                int hostStart = s.indexOf("://", start) + 3;
+                int slash = s.indexOf('/', hostStart);
+                if (slash < 0 || slash >= end) {
+                    out.append(s, start, end);
+                } else {
+                    out.append(s, start, slash).append("/***");
+                }
+                break;
+            }
+            case EMAIL:
+                out.append(s.charAt(start)).append("***").append(s, s.indexOf('@', start), end);
+                break;
+            case PHONE:
+                out.append(s, start, start + 4).append("****").append(s, start + 8, end);
+                break;
+            case DATE:
+                out.append(s, start, start + 5).append("**-**");
+                break;
+            case IP: {
+                int second = s.indexOf('.', s.indexOf('.', start) + 1);
+                out.append(s, start, second + 1).append("*.*");
+                break;
+            }
+            case PRICE:
+                out.append('₩').append("***");
+                break;
+            case KOREAN_NAME:
+                out.append(s.charAt(start));
+                for (int k = start + 1; k < end; k++) {
+                    out.append('*');
+                }
+                break;
+        }
+    }
+
+    // ---- 문자 분류 ----
+
+    private static boolean charAt(String s, int i, char c) {
+        return i < s.length() && s.charAt(i) == c;
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    // 정규식 \w (ASCII)
+    private static boolean isWordChar(char c) {
+        return isAsciiLetter(c) || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    private static boolean isLocalChar(char c) {
+        return isAsciiLetter(c) || (c >= '0' && c <= '9') || c == '.' || c == '_' || c == '%' || c == '+'
+                || c == '-';
+    }
+
+    private static boolean isDomainChar(char c) {
+        return isAsciiLetter(c) || (c >= '0' && c <= '9') || c == '.' || c == '-';
+    }
+
+    private static boolean isHangul(char c) {
+        return c >= '가' && c <= '힣';
+    }
+}
@@ -0,0 +1,147 @@
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.regex.MatchResult;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * PII 마스킹 처리량 비교: 유형별 정규식 순차 적용 vs PiiScanner 단일 패스
+ *
+ * 사용법: java PiiScannerBenchmark [줄 수(기본 20000)] [반복 횟수(기본 10)]
+ * 정규식은 UTIL PatternParser / StringReplacementParser와 같은 패턴을 사용한다.
+ */
+public class PiiScannerBenchmark {
+
+    // 유형별 정규식과 마스킹 (PiiScanner와 같은 마스킹 형태)
+    private static final Map<String, Pattern> PATTERNS = new LinkedHashMap<>();
+    private static final Map<String, Function<MatchResult, String>> MASKS = new LinkedHashMap<>();
+
+    static {
+        PATTERNS.put("url", Pattern.compile("https?://[^\\s]+"));
+        MASKS.put("url", m -> {
+            String u = m.group();
+            int slash = u.indexOf('/', u.indexOf("://") + 3);
+            return Matcher.quoteReplacement(slash < 0 ? u : u.substring(0, slash) + "/***");
+        });
+        PATTERNS.put("email", Pattern.compile("\\b([A-Za-z0-9._%+-])[A-Za-z0-9._%+-]*@([A-Za-z0-9.-]+\\.[A-Z|a-z]{2,})\\b"));
+        MASKS.put("email", m -> Matcher.quoteReplacement(m.group(1) + "***@" + m.group(2)));
+        PATTERNS.put("phone", Pattern.compile("\\b(\\d{3})-\\d{4}-(\\d{4})\\b"));
+        MASKS.put("phone", m -> m.group(1) + "-****-" + m.group(2));
+        PATTERNS.put("date", Pattern.compile("(\\d{4})-\\d{2}-\\d{2}"));
+        MASKS.put("date", m -> m.group(1) + "-**-**");
+        PATTERNS.put("ip", Pattern.compile("\\b(\\d{1,3}\\.\\d{1,3}\\.)\\d{1,3}\\.\\d{1,3}\\b"));
+        MASKS.put("ip", m -> m.group(1) + "*.*");
+        PATTERNS.put("price", Pattern.compile("₩[\\d,]+"));
+        MASKS.put("price", m -> "₩***");
+        PATTERNS.put("name", Pattern.compile("[가-힣]{2,4}"));
+        MASKS.put("name", m -> m.group().charAt(0) + "*".repeat(m.group().length() - 1));
+    }
+
+    public static void main(String[] args) {
+        int lineCount = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        List<String> lines = generate(lineCount, new Random(42));
+        long bytes = 0;
+        for (String ln : lines) {
+            bytes += ln.getBytes(StandardCharsets.UTF_8).length;
+        }
+        PiiScanner scanner = new PiiScanner(EnumSet.allOf(PiiScanner.Type.class));
+
+        System.out.println("예시 입력 : " + lines.get(0));
+        System.out.println("정규식 순차: " + maskSequential(lines.get(0)));
+        System.out.println("단일 패스 : " + scanner.mask(lines.get(0)));
+
+        // 워밍업
+        for (int r = 0; r < 3; r++) {
+            runSequential(lines);
+            runScanner(scanner, lines);
+        }
+        long seqNanos = 0;
+        long scanNanos = 0;
+        long sink = 0;
+        for (int r = 0; r < rounds; r++) {
+            long t0 = System.nanoTime();
+            sink += runSequential(lines);
+            long t1 = System.nanoTime();
+            sink += runScanner(scanner, lines);
+            long t2 = System.nanoTime();
+            seqNanos += t1 - t0;
+            scanNanos += t2 - t1;
+        }
+        double mb = bytes * (double) rounds / 1e6;
+        System.out.printf("입력: %,d줄, %,d bytes, %d회 반복%n", lineCount, bytes, rounds);
+        System.out.printf("정규식 순차(%d패스): %8.1f MB/s%n", PATTERNS.size(), mb / (seqNanos / 1e9));
+        System.out.printf("단일 패스 스캐너  : %8.1f MB/s (%.1f배)%n", mb / (scanNanos / 1e9),
+                (double) seqNanos / scanNanos);
+
+        // 탐지 건수 비교 (정규식은 유형별로 원문에서 각각 탐지)
+        Map<String, Integer> regexCounts = new LinkedHashMap<>();
+        Map<PiiScanner.Type, Integer> scanCounts = new LinkedHashMap<>();
+        for (String ln : lines) {
+            for (Map.Entry<String, Pattern> e : PATTERNS.entrySet()) {
+                regexCounts.merge(e.getKey(), (int) e.getValue().matcher(ln).results().count(), Integer::sum);
+            }
+            for (PiiScanner.Match m : scanner.find(ln)) {
+                scanCounts.merge(m.type, 1, Integer::sum);
+            }
+        }
+        System.out.println("탐지 건수(정규식 유형별): " + regexCounts);
+        System.out.println("탐지 건수(단일 패스)    : " + scanCounts + " (sink " + sink + ")");
+    }
+
+    private static long runSequential(List<String> lines) {
+        long total = 0;
+        for (String ln : lines) {
+            total += maskSequential(ln).length();
+        }
+        return total;
+    }
+
+    private static long runScanner(PiiScanner scanner, List<String> lines) {
+        long total = 0;
+        for (String ln : lines) {
+            total += scanner.mask(ln).length();
+        }
+        return total;
+    }
+
+    // 유형별 정규식을 차례로 한 패스씩 적용
+    private static String maskSequential(String line) {
+        String s = line;
+        for (Map.Entry<String, Pattern> e : PATTERNS.entrySet()) {
+            s = e.getValue().matcher(s).replaceAll(MASKS.get(e.getKey()));
+        }
+        return s;
+    }
+
+    // 개인정보가 섞인 로그/상담 메모 형태의 텍스트 생성
+    private static List<String> generate(int count, Random rnd) {
+        String[] surnames = {"김", "이", "박", "최", "정", "강", "조", "윤"};
+        String[] given = {"민준", "서연", "도윤", "하은", "지호", "수아"};
+        String[] words = {"고객", "문의", "배송", "요청", "확인", "처리", "완료", "order", "status", "shipped", "note"};
+        List<String> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            StringBuilder sb = new StringBuilder();
+            String name = surnames[rnd.nextInt(surnames.length)] + given[rnd.nextInt(given.length)];
+            sb.append(words[rnd.nextInt(words.length)]).append(' ').append(name).append("님 ");
+            sb.append("(user").append(rnd.nextInt(100000)).append("@example.co.kr, ");
+            sb.append(String.format("010-%04d-%04d", rnd.nextInt(10000), rnd.nextInt(10000))).append(") ");
+            sb.append(String.format("2024-%02d-%02d", 1 + rnd.nextInt(12), 1 + rnd.nextInt(28))).append(' ');
+            for (int w = 0; w < 6; w++) {
+                sb.append(words[rnd.nextInt(words.length)]).append(' ');
+            }
+            sb.append("접속 IP ").append(rnd.nextInt(256)).append('.').append(rnd.nextInt(256)).append('.')
+                    .append(rnd.nextInt(256)).append('.').append(rnd.nextInt(256)).append(' ');
+            sb.append("https://shop.example.com/orders/").append(rnd.nextInt(1000000)).append(' ');
+            sb.append("결제 금액 ₩").append(String.format("%,d", 1000 * (1 + rnd.nextInt(500))));
+            lines.add(sb.toString());
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,39 @@
+/**
+ * 청크 하나의 처리 결과 (작업 번호와 결과 값을 int 배열 그대로 보관)
+ * 결과 문자열("A 처리 결과: 1 => 2")은 출력 대상에서 필요할 때만 만든다.
+ */
+public final class ResultChunk {
+	public final String agentName;
+	private final int[] jobs;    // 전체 작업 배열 (복사하지 않음)
+	private final int from;      // jobs[from] ~ jobs[from + size() - 1]
+	private final int[] results; // results[i]: jobs[from + i]의 결과
+
+	public ResultChunk(String agentName, int[] jobs, int from, int[] results) {
+		this.agentName = agentName;
+		this.jobs = jobs;
+		this.from = from;
+		this.results = results;
+	}
+
+	// 이 청크가 시작하는 jobs 배열 위치
+	public int from() {
+		return from;
+	}
+
+	public int size() {
+		return results.length;
+	}
+
+	public int job(int i) {
+		return jobs[from + i];
+	}
+
+	public int result(int i) {
+		return results[i];
+	}
+
+	// 기존 결과 문자열 형식
+	public String format(int i) {
+		return agentName + " 처리 결과: " + job(i) + " => " + result(i);
+	}
+}
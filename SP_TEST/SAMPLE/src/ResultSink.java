@@ -0,0 +1,187 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * 작업 결과 출력 대상 (표준출력, 파일, 콜백)
+ * ResultStream의 소비 스레드 하나에서만 호출되므로 스레드 안전할 필요는 없다.
+ */
+@FunctionalInterface
+public interface ResultSink extends AutoCloseable {
+
+	void accept(String result) throws IOException;
+
+	// 청크 단위 출력 (기본: 결과마다 문자열을 만들어 accept(String) 호출)
+	default void accept(ResultChunk chunk) throws IOException {
+		for (int i = 0; i < chunk.size(); i++) {
+			accept(chunk.format(i));
+		}
+	}
+
+	// 지금까지 받은 결과를 출력 대상까지 내보냄 (체크포인트 확정 전에 호출)
+	default void flush() throws IOException {
+	}
+
+	// 출력 위치 (파일에 기록한 바이트 수, 알 수 없으면 -1)
+	default long position() {
+		return -1;
+	}
+
+	@Override
+	default void close() throws IOException {
+	}
+
+	// 표준출력 (UTF-8, 닫아도 System.out은 닫지 않음)
+	static ResultSink stdout() {
+		return new ByteResultSink(System.out, false, -1);
+	}
+
+	// 결과를 한 줄씩 파일에 기록 (UTF-8, close 시 flush)
+	static ResultSink file(Path path) throws IOException {
+		return new ByteResultSink(Files.newOutputStream(path), true, 0);
+	}
+
+	// 이어 쓰기: 파일을 체크포인트에 확정된 출력 위치까지만 남기고 그 뒤에 기록 (position < 0이면 새 파일)
+	static ResultSink file(Path path, long position) throws IOException {
+		if (position < 0) {
+			return file(path);
+		}
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		if (channel.size() < position) {
+			channel.close();
+			throw new IOException("출력 파일이 체크포인트 위치보다 짧음: " + path);
+		}
+		channel.truncate(position);
+		channel.position(position);
+		return new ByteResultSink(Channels.newOutputStream(channel), true, position);
+	}
+
+	// 임의 출력 스트림 (닫아도 스트림은 닫지 않음)
+	static ResultSink output(OutputStream out) {
+		return new ByteResultSink(out, false, -1);
+	}
+
+	static ResultSink callback(Consumer<String> callback) {
+		return callback::accept;
+	}
+
+	/**
+	 * 결과 문자열을 만들지 않고 에이전트 이름 바이트와 숫자를 출력 버퍼에 바로 기록하는 출력 대상
+	 */
+	final class ByteResultSink implements ResultSink {
+		private static final byte[] SEPARATOR = " 처리 결과: ".getBytes(StandardCharsets.UTF_8);
+		private static final byte[] ARROW = " => ".getBytes(StandardCharsets.UTF_8);
+		private static final byte[] NEWLINE = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+		private static final int MAX_LINE = 256; // 에이전트 이름을 뺀 한 줄 최대 길이보다 충분히 큼
+
+		private final OutputStream out;
+		private final boolean closeStream;
+		private final byte[] buffer = new byte[64 * 1024];
+		private int length;
+		private String lastAgent;
+		private byte[] agentBytes;
+		private long position; // 출력한 바이트 수 (-1이면 세지 않음)
+
+		ByteResultSink(OutputStream out, boolean closeStream, long position) {
+			this.out = out;
+			this.closeStream = closeStream;
+			this.position = position;
+		}
+
+		@Override
+		public void accept(String result) throws IOException {
+			byte[] bytes = result.getBytes(StandardCharsets.UTF_8);
+			write(bytes);
+			write(NEWLINE);
+		}
+
+		@Override
+		public void accept(ResultChunk chunk) throws IOException {
+			if (chunk.agentName != lastAgent) {
+				lastAgent = chunk.agentName;
+				agentBytes = chunk.agentName.getBytes(StandardCharsets.UTF_8);
+			}
+			for (int i = 0; i < chunk.size(); i++) {
+				if (length + agentBytes.length + MAX_LINE > buffer.length) {
+					flushBuffer();
+				}
+				write(agentBytes);
+				write(SEPARATOR);
+				writeInt(chunk.job(i));
+				write(ARROW);
+				writeInt(chunk.result(i));
+				write(NEWLINE);
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			flushBuffer();
+			out.flush();
+		}
+
+		@Override
+		public long position() {
+			return position;
+		}
+
+		@Override
+		public void close() throws IOException {
+			flushBuffer();
+			if (closeStream) {
+				out.close();
+			} else {
+				out.flush();
+			}
+		}
+
+		private void write(byte[] bytes) throws IOException {
+			if (length + bytes.length > buffer.length) {
+				flushBuffer();
+				if (bytes.length > buffer.length) {
+					out.write(bytes);
+					advance(bytes.length);
+					return;
+				}
+			}
+			System.arraycopy(bytes, 0, buffer, length, bytes.length);
+			length += bytes.length;
+		}
+
+		// 10진수 ASCII (버퍼 여유는 호출하는 쪽에서 확보)
+		private void writeInt(int value) {
+			long v = value;
+			if (v < 0) {
+				buffer[length++] = '-';
+				v = -v;
+			}
+			int digits = 1;
+			for (long p = 10; p <= v; p *= 10) {
+				digits++;
+			}
+			for (int i = length + digits - 1; i >= length; i--) {
+				buffer[i] = (byte) ('0' + v % 10);
+				v /= 10;
+			}
+			length += digits;
+		}
+
+		private void flushBuffer() throws IOException {
+			out.write(buffer, 0, length);
+			advance(length);
+			length = 0;
+		}
+
+		private void advance(int bytes) {
+			if (position >= 0) {
+				position += bytes;
+			}
+		}
+	}
+}
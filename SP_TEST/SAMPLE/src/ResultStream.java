@@ -0,0 +1,176 @@
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 청크 단위 작업 결과 스트리밍
+ *
+ * 작업 스레드(생산자)는 청크 하나를 끝낼 때마다 publish로 결과를 크기 제한 큐에 넣고,
+ * drain을 호출한 스레드(소비자) 하나가 큐에서 꺼내 ResultSink로 바로 내보낸다.
+ * - COMPLETION: 끝난 순서대로 출력
+ * - ORDERED: 청크 순번(seq) 순서대로 출력. 다음에 출력할 순번보다 window 이상 앞선 청크는
+ *   publish에서 차례를 기다리므로, 재정렬 대기 중인 청크는 항상 window개 이하
+ * 어느 쪽이든 메모리에 머무는 결과는 큐 크기(window) 청크분으로 제한되고 전체 작업 수와 무관하다.
+ * 체크포인트 로그를 설정하면 출력 대상에 넘긴 청크 범위를 소비 스레드에서 묶어서 기록한다.
+ */
+public class ResultStream {
+
+	public enum Order {
+		COMPLETION, ORDERED
+	}
+
+	private static final class Chunk {
+		final long seq;
+		final ResultChunk results;
+
+		Chunk(long seq, ResultChunk results) {
+			this.seq = seq;
+			this.results = results;
+		}
+	}
+
+	private static final Chunk FAILED = new Chunk(-1, null);
+
+	private final Order order;
+	private final int window;
+	private final ResultSink sink;
+	private final BlockingQueue<Chunk> queue;
+	private final AtomicReference<Throwable> failure = new AtomicReference<>();
+	// ORDERED 차례 대기는 synchronized/wait 대신 Lock으로 (가상 스레드가 대기 중에 캐리어 스레드를 붙잡지 않도록)
+	private final ReentrantLock turnLock = new ReentrantLock();
+	private final Condition turnChanged = turnLock.newCondition();
+	private long nextSeq; // ORDERED: 다음에 출력할 순번 (turnLock으로 보호)
+	private volatile boolean closed;
+	private CheckpointLog checkpoint;
+
+	public ResultStream(Order order, int window, ResultSink sink) {
+		this.order = order;
+		this.window = window;
+		this.sink = sink;
+		this.queue = new ArrayBlockingQueue<>(window);
+	}
+
+	// 체크포인트 로그 (drain 전에 설정)
+	public void setCheckpoint(CheckpointLog checkpoint) {
+		this.checkpoint = checkpoint;
+	}
+
+	/**
+	 * 생산자: 청크 결과 전달 (큐가 차 있거나 ORDERED에서 차례가 멀면 대기)
+	 * 소비자가 먼저 끝나면(실패 등) CancellationException
+	 */
+	public void publish(long seq, ResultChunk results) throws InterruptedException {
+		if (order == Order.ORDERED) {
+			turnLock.lock();
+			try {
+				while (seq >= nextSeq + window) {
+					checkOpen();
+					turnChanged.await(100, TimeUnit.MILLISECONDS);
+				}
+			} finally {
+				turnLock.unlock();
+			}
+		}
+		Chunk chunk = new Chunk(seq, results);
+		while (!queue.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+			checkOpen();
+		}
+	}
+
+	/**
+	 * 생산자: 작업 실패 알림 (소비자는 ExecutionException으로 종료)
+	 */
+	public void fail(Throwable cause) {
+		if (failure.compareAndSet(null, cause)) {
+			queue.offer(FAILED); // 큐가 차 있으면 소비자가 다음 청크를 꺼낼 때 실패를 확인
+		}
+	}
+
+	/**
+	 * 소비자: 청크 totalChunks개를 모두 출력할 때까지 실행
+	 */
+	public void drain(long totalChunks) throws InterruptedException, ExecutionException, IOException {
+		Map<Long, Chunk> pending = new HashMap<>(); // ORDERED: 차례를 기다리는 청크
+		try {
+			long received = 0;
+			while (received < totalChunks) {
+				Chunk chunk = checkpoint == null ? queue.take() : takeWithCheckpoint();
+				if (failure.get() != null) {
+					throw new ExecutionException(failure.get());
+				}
+				received++;
+				if (order == Order.COMPLETION) {
+					emit(chunk);
+					continue;
+				}
+				pending.put(chunk.seq, chunk);
+				while ((chunk = pending.remove(currentSeq())) != null) {
+					emit(chunk);
+					turnLock.lock();
+					try {
+						nextSeq++;
+						turnChanged.signalAll();
+					} finally {
+						turnLock.unlock();
+					}
+				}
+			}
+			if (checkpoint != null) {
+				checkpoint.commit(sink);
+			}
+		} catch (InterruptedException | ExecutionException e) {
+			// 작업이 실패해도 이미 출력 대상에 넘긴 청크는 확정 (이어 하기에서 다시 처리하지 않도록)
+			// 출력 대상 자체의 실패는 청크 중간일 수 있으므로 확정하지 않음
+			if (checkpoint != null) {
+				try {
+					checkpoint.commit(sink);
+				} catch (IOException | RuntimeException suppressed) {
+					e.addSuppressed(suppressed);
+				}
+			}
+			throw e;
+		} finally {
+			closed = true;
+			queue.clear();
+		}
+	}
+
+	// 체크포인트 묶음 기한이 지나면 청크를 기다리는 중에도 확정
+	private Chunk takeWithCheckpoint() throws InterruptedException, IOException {
+		Chunk chunk;
+		while ((chunk = queue.poll(checkpoint.millisUntilDue(), TimeUnit.MILLISECONDS)) == null) {
+			checkpoint.commit(sink);
+		}
+		return chunk;
+	}
+
+	private long currentSeq() {
+		turnLock.lock();
+		try {
+			return nextSeq;
+		} finally {
+			turnLock.unlock();
+		}
+	}
+
+	private void emit(Chunk chunk) throws IOException {
+		sink.accept(chunk.results);
+		if (checkpoint != null) {
+			checkpoint.completed(chunk.results, sink);
+		}
+	}
+
+	private void checkOpen() {
+		if (closed) {
+			throw new CancellationException("결과 스트림 종료");
+		}
+	}
+}
@@ -0,0 +1,799 @@
+import java.io.FileReader;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntUnaryOperator;
+
+import org.eclipse.jetty.client.HttpClient;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+// 메인 클래스
+public class ThreadDistributedWorker {
+
+	// 스케줄링 방식
+	public enum SchedulingMode {
+		STATIC,        // 배분 수만큼 청크를 번갈아 배정하고 에이전트마다 하나의 Callable로 실행
+		WORK_STEALING, // 작은 청크로 나눠 ForkJoin 작업 훔치기 (배분 수는 우선 배정만 결정)
+		ADAPTIVE,      // 관측 처리량에 맞춰 배분 비율을 계속 조정하며 청크 단위로 배정 (AdaptiveAllocator)
+		DISTRIBUTED,   // 에이전트마다 별도 작업자 프로세스(AgentWorkerServer)에 HTTP로 청크 전송 (DistributedDispatcher)
+		VIRTUAL        // 작은 청크마다 가상 스레드에서 처리, 에이전트별 동시 처리 수는 배분 비율대로 세마포어로 제한
+	}
+
+	// 작업별 처리 시간 모의 (에이전트 환경에 따른 지연 실험용)
+	@FunctionalInterface
+	public interface JobCost {
+		int millis(String agentName, int job);
+	}
+
+	// 작업 처리 (jobCost: 작업별 처리 시간 모의, 0이면 없음)
+	static int processJob(String agentName, int job, JobCost jobCost) {
+		int cost = jobCost.millis(agentName, job);
+		if (cost > 0) {
+			try {
+				Thread.sleep(cost);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		// 실제 처리 로직 (예: job * 2)
+		return job * 2;
+	}
+
+	// Agent 작업자 클래스: 자기 몫의 청크({from, to, 순번} 목록, 순번 오름차순)를 처리하며 결과(int 배열)를 바로 스트림에 넘기고 처리 건수 반환
+	// 결과 문자열은 출력 대상(ResultSink)에서만 만든다.
+	static class AgentWorker implements Callable<Integer> {
+		private final String agentName;
+		private final int[] jobs;
+		private final List<int[]> chunks;
+		private final JobCost jobCost;
+		private final ResultStream stream;
+
+		public AgentWorker(String agentName, int[] jobs, List<int[]> chunks, JobCost jobCost, ResultStream stream) {
+			this.agentName = agentName;
+			this.jobs = jobs;
+			this.chunks = chunks;
+			this.jobCost = jobCost;
+			this.stream = stream;
+		}
+
+		@Override
+		public Integer call() throws InterruptedException {
+			try {
+				int processed = 0;
+				for (int[] chunk : chunks) {
+					int lo = chunk[0];
+					int hi = chunk[1];
+					int[] results = new int[hi - lo];
+					for (int i = lo; i < hi; i++) {
+						results[i - lo] = processJob(agentName, jobs[i], jobCost);
+					}
+					stream.publish(chunk[2], new ResultChunk(agentName, jobs, lo, results));
+					processed += hi - lo;
+				}
+				return processed;
+			} catch (RuntimeException e) {
+				stream.fail(e);
+				throw e;
+			}
+		}
+	}
+
+	// 에이전트별 처리 집계 (작업 훔치기 모드)
+	static class AgentStats {
+		final String agentName;
+		int jobs;
+		int ownChunks;    // 자기에게 우선 배정된 청크
+		int stolenChunks; // 다른 에이전트 몫에서 훔쳐 온 청크
+		long busyNanos;
+
+		AgentStats(String agentName) {
+			this.agentName = agentName;
+		}
+	}
+
+	private static final int MAX_AUTO_CHUNK = 4096;
+	private static final int MAX_VIRTUAL_CHUNK = 64;
+
+	private final Map<String, Integer> agentAllocations;
+	private final SchedulingMode mode;
+	private final ExecutorService executor = Executors.newFixedThreadPool(3);
+	private JobCost jobCost = (agent, job) -> 0;
+	private int chunkSize; // 0이면 작업 수에 맞춰 자동
+	private ResultSink sink = ResultSink.stdout();
+	private ResultStream.Order outputOrder = ResultStream.Order.ORDERED;
+	private int reorderWindow = 64;
+	private volatile AdaptiveAllocator allocator;
+	private Map<String, String> agentEndpoints;
+	private HttpClient httpClient;
+	private int pipelineDepth = 4;
+	private CheckpointLog checkpoint;
+	private int virtualConcurrency = 64;
+
+	public ThreadDistributedWorker(Map<String, Integer> agentAllocations) {
+		this(agentAllocations, SchedulingMode.STATIC);
+	}
+
+	public ThreadDistributedWorker(Map<String, Integer> agentAllocations, SchedulingMode mode) {
+		this.agentAllocations = agentAllocations;
+		this.mode = mode;
+	}
+
+	// 작업별 처리 시간 모의 (편중된 작업량 실험용)
+	public void setJobCostMillis(IntUnaryOperator jobCostMillis) {
+		this.jobCost = (agent, job) -> jobCostMillis.applyAsInt(job);
+	}
+
+	// 에이전트별 처리 시간 모의 (특정 에이전트 환경이 느려지는 상황 실험용)
+	public void setJobCost(JobCost jobCost) {
+		this.jobCost = jobCost;
+	}
+
+	/**
+	 * DISTRIBUTED 모드 설정
+	 * endpoints: 에이전트 이름 → 작업자 주소 (예: A → http://localhost:9001)
+	 * client: 공유 HttpClient (null이면 실행 동안만 쓸 클라이언트를 만들고 종료)
+	 * pipelineDepth: 에이전트마다 응답을 기다리지 않고 보내 둘 청크 수
+	 */
+	public void setDistributed(Map<String, String> endpoints, HttpClient client, int pipelineDepth) {
+		this.agentEndpoints = endpoints;
+		this.httpClient = client;
+		this.pipelineDepth = pipelineDepth;
+	}
+
+	/**
+	 * 체크포인트 로그 (null이면 사용 안 함)
+	 * 출력 대상에 넘긴 청크 범위를 묶어서 기록하고, 이미 기록된 범위는 이번 실행에서 다시 배정하지 않는다.
+	 * 로그를 열고 닫는 것은 호출하는 쪽 (이어 하기에서 출력 파일은 ResultSink.file(path, log.outputPosition()))
+	 */
+	public void setCheckpoint(CheckpointLog checkpoint) {
+		this.checkpoint = checkpoint;
+	}
+
+	// ADAPTIVE 모드의 현재 배분 비율 (실행 전에는 null)
+	public Map<String, Double> currentShares() {
+		AdaptiveAllocator current = allocator;
+		return current != null ? current.shares() : null;
+	}
+
+	public AdaptiveAllocator getAllocator() {
+		return allocator;
+	}
+
+	/**
+	 * VIRTUAL 모드 전체 동시 처리 수 (기본 64)
+	 * 에이전트마다 배분 비율만큼 나눠 세마포어 허가 수로 사용한다. (A:50, B:30, C:20이면 32, 19, 13)
+	 */
+	public void setVirtualConcurrency(int virtualConcurrency) {
+		this.virtualConcurrency = virtualConcurrency;
+	}
+
+	// 청크 크기 (결과 전달 단위이자 작업 훔치기 단위)
+	public void setChunkSize(int chunkSize) {
+		this.chunkSize = chunkSize;
+	}
+
+	// 결과 출력 대상 (기본: 표준출력)
+	public void setResultSink(ResultSink sink) {
+		this.sink = sink;
+	}
+
+	/**
+	 * 결과 출력 순서 (기본: 작업 순서, 재정렬 창 64청크)
+	 * ORDERED는 STATIC/ADAPTIVE/VIRTUAL 모드에 적용되고, WORK_STEALING 모드는 항상 완료 순서로 출력한다.
+	 * (ForkJoin 워커를 출력 차례 대기로 막으면 앞 순번 청크를 처리할 스레드가 없어질 수 있음)
+	 */
+	public void setOutputOrder(ResultStream.Order outputOrder, int reorderWindow) {
+		this.outputOrder = outputOrder;
+		this.reorderWindow = reorderWindow;
+	}
+
+	// 자동 청크 크기: 에이전트당 16청크 정도, 재정렬 창(청크 window개)에 머무는 결과가 커지지 않도록 최대 4096건
+	// 작업이 많으면 에이전트당 청크가 window보다 훨씬 많아지지만, 청크를 작업 순서대로 번갈아 배정하므로(planInterleaved)
+	// ORDERED 출력이 한 에이전트 몫을 기다리며 멈추지는 않는다.
+	private int chunkSize(int jobCount) {
+		return chunkSize > 0 ? chunkSize
+				: Math.max(1, Math.min(MAX_AUTO_CHUNK, jobCount / (agentAllocations.size() * 16)));
+	}
+
+	// VIRTUAL 모드 자동 청크 크기: 동시 처리 수의 4배 정도 청크가 생기도록, 최대 64건
+	private int virtualChunkSize(int jobCount) {
+		return chunkSize > 0 ? chunkSize
+				: Math.max(1, Math.min(MAX_VIRTUAL_CHUNK, jobCount / (virtualConcurrency * 4)));
+	}
+
+	// 에이전트별 동시 처리 수 (전체 동시 처리 수를 배분 비율대로, 최소 1)
+	private Map<String, Integer> virtualPermits() {
+		long total = 0;
+		for (int count : agentAllocations.values()) {
+			total += count;
+		}
+		Map<String, Integer> permits = new LinkedHashMap<>();
+		for (Map.Entry<String, Integer> entry : agentAllocations.entrySet()) {
+			permits.put(entry.getKey(),
+					(int) Math.max(1, Math.round((double) virtualConcurrency * entry.getValue() / total)));
+		}
+		return permits;
+	}
+
+	// jobs[from, to)를 나눈 청크 {from, to} 목록 (체크포인트가 있으면 이미 끝난 범위는 제외)
+	private List<int[]> chunks(int from, int to, int size) {
+		if (checkpoint != null) {
+			return checkpoint.pendingChunks(from, to, size);
+		}
+		List<int[]> chunks = new ArrayList<>();
+		for (int lo = from; lo < to; lo += size) {
+			chunks.add(new int[] { lo, Math.min(lo + size, to) });
+		}
+		return chunks;
+	}
+
+	// 배분 순서대로 자른 에이전트별 연속 구간 청크 목록 (배분 합이 작업 수를 넘는 부분은 무시, 완료 순서 출력 모드용)
+	private Map<String, List<int[]>> planChunks(int jobCount, int size) {
+		Map<String, List<int[]>> plan = new LinkedHashMap<>();
+		int offset = 0;
+		for (Map.Entry<String, Integer> entry : agentAllocations.entrySet()) {
+			int from = Math.min(offset, jobCount);
+			int to = Math.min(offset + entry.getValue(), jobCount);
+			plan.put(entry.getKey(), chunks(from, to, size));
+			offset += entry.getValue();
+		}
+		return plan;
+	}
+
+	/**
+	 * STATIC/VIRTUAL 모드 배분: 작업을 앞에서부터 청크로 자르고 배분 비율대로 번갈아(평활 가중 라운드로빈) 맡긴다.
+	 * 청크는 {from, to, 순번}이고 순번은 작업 순서이다. 에이전트별 처리 건수는 배분 건수를 그대로 지킨다
+	 * (남은 배분보다 큰 청크는 잘라서 배정).
+	 * 에이전트마다 연속 구간을 맡기면 ORDERED 출력에서 뒤 구간 에이전트가 앞 에이전트 몫이 모두 출력될 때까지
+	 * 재정렬 창에 막혀 사실상 순차 실행이 되므로, 모든 에이전트가 출력 맨 앞 근처의 청크를 함께 처리하게 한다.
+	 */
+	private Map<String, List<int[]>> planInterleaved(int jobCount, int size) {
+		List<String> agents = new ArrayList<>(agentAllocations.keySet());
+		int n = agents.size();
+		int[] quota = new int[n];
+		long[] current = new long[n];
+		long limit = 0;
+		Map<String, List<int[]>> plan = new LinkedHashMap<>();
+		for (int a = 0; a < n; a++) {
+			quota[a] = Math.max(0, agentAllocations.get(agents.get(a)));
+			limit += quota[a];
+			plan.put(agents.get(a), new ArrayList<>());
+		}
+		int seq = 0;
+		for (int[] range : chunks(0, (int) Math.min(limit, jobCount), size)) {
+			for (int lo = range[0]; lo < range[1];) {
+				// 배분이 남은 에이전트 중 누적 가중치가 가장 큰 에이전트 (가중치 = 배분 건수)
+				int best = -1;
+				long total = 0;
+				for (int a = 0; a < n; a++) {
+					if (quota[a] > 0) {
+						int weight = agentAllocations.get(agents.get(a));
+						current[a] += weight;
+						total += weight;
+						if (best < 0 || current[a] > current[best]) {
+							best = a;
+						}
+					}
+				}
+				current[best] -= total;
+				int hi = Math.min(range[1], lo + quota[best]);
+				plan.get(agents.get(best)).add(new int[] { lo, hi, seq++ });
+				quota[best] -= hi - lo;
+				lo = hi;
+			}
+		}
+		return plan;
+	}
+
+	// planInterleaved 결과의 전체 청크 수
+	private static long chunkCount(Map<String, List<int[]>> plan) {
+		long count = 0;
+		for (List<int[]> chunks : plan.values()) {
+			count += chunks.size();
+		}
+		return count;
+	}
+
+	private ResultStream newStream(ResultStream.Order order) {
+		ResultStream stream = new ResultStream(order, reorderWindow, sink);
+		stream.setCheckpoint(checkpoint);
+		return stream;
+	}
+
+	/**
+	 * 작업 분배 및 실행
+	 * 결과는 에이전트가 청크를 끝낼 때마다 ResultSink로 흘려보내며, 전체 결과를 모아 두지 않는다.
+	 */
+	public void distributeAndExecuteTasks(int[] jobs) throws InterruptedException, ExecutionException {
+		if (mode == SchedulingMode.WORK_STEALING) {
+			executor.shutdown(); // 고정 스레드풀은 사용하지 않음
+			executeWorkStealing(jobs);
+			return;
+		}
+		if (mode == SchedulingMode.ADAPTIVE) {
+			executor.shutdown();
+			executeAdaptive(jobs);
+			return;
+		}
+		if (mode == SchedulingMode.DISTRIBUTED) {
+			executor.shutdown();
+			executeDistributed(jobs);
+			return;
+		}
+		if (mode == SchedulingMode.VIRTUAL) {
+			executor.shutdown();
+			executeVirtual(jobs);
+			return;
+		}
+		ResultStream stream = newStream(outputOrder);
+		Map<String, List<int[]>> plan = planInterleaved(jobs.length, chunkSize(jobs.length));
+		List<Future<Integer>> futures = new ArrayList<>();
+
+		for (Map.Entry<String, List<int[]>> entry : plan.entrySet()) {
+			Callable<Integer> task = new AgentWorker(entry.getKey(), jobs, entry.getValue(), jobCost, stream);
+			futures.add(executor.submit(task));
+		}
+		executor.shutdown();
+
+		// 결과 출력 (청크가 끝나는 대로)
+		try {
+			stream.drain(chunkCount(plan));
+		} catch (IOException e) {
+			throw new ExecutionException("결과 출력 실패", e);
+		} finally {
+			executor.shutdownNow(); // 실패 시 대기 중인 에이전트 중단
+		}
+		for (Future<Integer> future : futures) {
+			future.get(); // 작업 예외 확인
+		}
+	}
+
+	/**
+	 * 작업마다 가상 스레드를 만드는 실행기 (가상 스레드가 없는 JDK 21 미만이면 null)
+	 * 컴파일 기준이 Java 17이므로 리플렉션으로 생성한다.
+	 */
+	static ExecutorService newVirtualThreadExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * 가상 스레드 실행 (원격 호출처럼 대기가 긴 작업용)
+	 *
+	 * 작은 청크마다 가상 스레드 하나에서 처리한다. 에이전트마다 배분 비율만큼의 허가를 가진 세마포어를 두고,
+	 * 에이전트별 제출 스레드가 허가를 얻을 때마다 다음 청크를 제출하므로 에이전트별 동시 처리 수는 허가 수로 제한된다.
+	 * 스레드 수가 동시 처리 수를 제한하지 않으므로, 작업이 응답을 기다리는 동안에도 다른 작업이 진행된다.
+	 * 에이전트마다 청크를 순번 순서로 제출하므로 ORDERED 출력에서 가장 앞선 청크는 항상 실행 중이다.
+	 * 가상 스레드가 없으면 캐시 스레드풀(플랫폼 스레드, 최대 허가 수 합계만큼)로 대신 실행한다.
+	 */
+	private void executeVirtual(int[] jobs) throws InterruptedException, ExecutionException {
+		Map<String, List<int[]>> plan = planInterleaved(jobs.length, virtualChunkSize(jobs.length));
+		Map<String, Integer> permits = virtualPermits();
+		ResultStream stream = newStream(outputOrder);
+		ExecutorService tasks = newVirtualThreadExecutor();
+		boolean virtual = tasks != null;
+		if (!virtual) {
+			tasks = Executors.newCachedThreadPool();
+		}
+		ExecutorService taskPool = tasks;
+		ExecutorService submitters = Executors.newFixedThreadPool(plan.size());
+		Map<String, Future<Integer>> futures = new LinkedHashMap<>();
+		try {
+			for (Map.Entry<String, List<int[]>> entry : plan.entrySet()) {
+				String agent = entry.getKey();
+				List<int[]> chunks = entry.getValue();
+				Semaphore semaphore = new Semaphore(permits.get(agent));
+				futures.put(agent, submitters.submit(() -> {
+					int submitted = 0;
+					for (int[] chunk : chunks) {
+						semaphore.acquire();
+						taskPool.execute(() -> {
+							try {
+								int[] results = new int[chunk[1] - chunk[0]];
+								for (int i = chunk[0]; i < chunk[1]; i++) {
+									results[i - chunk[0]] = processJob(agent, jobs[i], jobCost);
+								}
+								stream.publish(chunk[2], new ResultChunk(agent, jobs, chunk[0], results));
+							} catch (InterruptedException e) {
+								Thread.currentThread().interrupt();
+							} catch (RuntimeException e) {
+								stream.fail(e);
+							} finally {
+								semaphore.release();
+							}
+						});
+						submitted += chunk[1] - chunk[0];
+					}
+					return submitted;
+				}));
+			}
+			submitters.shutdown();
+			try {
+				stream.drain(chunkCount(plan));
+			} catch (IOException e) {
+				throw new ExecutionException("결과 출력 실패", e);
+			}
+			System.out.println(virtual ? "가상 스레드 실행" : "가상 스레드 없음 (JDK 21 미만): 캐시 스레드풀로 실행");
+			for (Map.Entry<String, Future<Integer>> entry : futures.entrySet()) {
+				System.out.printf("%s: 처리 %d건, 동시 처리 한도 %d%n", entry.getKey(), entry.getValue().get(),
+						permits.get(entry.getKey()));
+			}
+		} finally {
+			submitters.shutdownNow();
+			taskPool.shutdownNow();
+		}
+	}
+
+	/**
+	 * 분산 실행 (결과는 완료 순서로 출력)
+	 * 재배정 청크를 처리할 에이전트 스레드가 출력 차례 대기로 막히지 않도록 ORDERED 설정은 적용하지 않는다.
+	 */
+	private void executeDistributed(int[] jobs) throws InterruptedException, ExecutionException {
+		if (agentEndpoints == null) {
+			throw new IllegalStateException("DISTRIBUTED 모드는 setDistributed로 작업자 주소를 지정해야 함");
+		}
+		HttpClient client = httpClient;
+		boolean ownClient = client == null;
+		try {
+			if (ownClient) {
+				client = new HttpClient();
+				client.start();
+			}
+			ResultStream stream = newStream(ResultStream.Order.COMPLETION);
+			DistributedDispatcher dispatcher = new DistributedDispatcher(client, agentEndpoints, pipelineDepth);
+			Map<String, Integer> processed = dispatcher.run(jobs, planChunks(jobs.length, chunkSize(jobs.length)),
+					stream);
+			for (Map.Entry<String, Integer> entry : processed.entrySet()) {
+				System.out.printf("%s (%s): 처리 %d건%n", entry.getKey(), agentEndpoints.get(entry.getKey()),
+						entry.getValue());
+			}
+		} catch (InterruptedException | ExecutionException | RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new ExecutionException("HttpClient 시작/종료 실패", e);
+		} finally {
+			if (ownClient && client != null) {
+				try {
+					client.stop();
+				} catch (Exception e) {
+					// 종료 중 오류는 무시
+				}
+			}
+		}
+	}
+
+	/**
+	 * 적응형 배분 실행
+	 *
+	 * 에이전트마다 전용 스레드와 작은 청크 큐(2개)를 두고, 배정 스레드가 작업 순서대로 청크를 만들어
+	 * AdaptiveAllocator가 고른 에이전트의 큐에 넣는다. 에이전트는 청크를 처리할 때마다 처리 시간을 보고하고,
+	 * 배분 비율은 관측 처리량에 맞춰 (설정 비율 근처 범위 안에서) 계속 바뀐다.
+	 * 느려진 에이전트는 큐가 비지 않아 배정 스레드를 잠시 막을 수 있지만, 비율이 줄어들면 덜 선택된다.
+	 */
+	private void executeAdaptive(int[] jobs) throws InterruptedException, ExecutionException {
+		AdaptiveAllocator adaptive = new AdaptiveAllocator(agentAllocations);
+		allocator = adaptive;
+		int size = chunkSize(jobs.length);
+		int total = 0;
+		for (int count : agentAllocations.values()) {
+			total += count;
+		}
+		List<int[]> chunks = chunks(0, Math.min(total, jobs.length), size);
+		ResultStream stream = newStream(outputOrder);
+
+		Map<String, BlockingQueue<int[]>> queues = new LinkedHashMap<>();
+		for (String agent : agentAllocations.keySet()) {
+			queues.put(agent, new ArrayBlockingQueue<>(2));
+		}
+		ExecutorService pool = Executors.newFixedThreadPool(queues.size() + 1);
+		List<Future<Integer>> futures = new ArrayList<>();
+		try {
+			for (Map.Entry<String, BlockingQueue<int[]>> entry : queues.entrySet()) {
+				String agent = entry.getKey();
+				BlockingQueue<int[]> queue = entry.getValue();
+				futures.add(pool.submit(() -> {
+					int processed = 0;
+					try {
+						int[] range;
+						while ((range = queue.take()).length > 0) {
+							int from = range[0];
+							int to = range[1];
+							long seq = range[2];
+							long start = System.nanoTime();
+							int[] results = new int[to - from];
+							for (int i = from; i < to; i++) {
+								results[i - from] = processJob(agent, jobs[i], jobCost);
+							}
+							adaptive.record(agent, to - from, System.nanoTime() - start);
+							stream.publish(seq, new ResultChunk(agent, jobs, from, results));
+							processed += to - from;
+						}
+					} catch (RuntimeException e) {
+						stream.fail(e);
+						throw e;
+					}
+					return processed;
+				}));
+			}
+			// 배정 스레드: 작업 순서대로 청크를 현재 비율에 따라 배정하고 끝나면 종료 표시
+			// 고른 에이전트의 큐가 차 있으면(처리가 밀린 에이전트) 기다리지 않고 다음 가중치 순번으로 넘기고,
+			// 모든 큐가 차 있을 때만 고른 큐에서 잠깐 기다렸다 다시 고른다. seq는 청크를 넣은 순서대로 붙는다.
+			futures.add(pool.submit(() -> {
+				try {
+					int seq = 0;
+					for (int[] chunk : chunks) {
+						int[] range = { chunk[0], chunk[1], seq };
+						for (int tries = 1;; tries++) {
+							BlockingQueue<int[]> queue = queues.get(adaptive.next());
+							if (tries % queues.size() == 0 ? queue.offer(range, 1, TimeUnit.MILLISECONDS)
+									: queue.offer(range)) {
+								break;
+							}
+						}
+						seq++;
+					}
+					for (BlockingQueue<int[]> queue : queues.values()) {
+						queue.put(new int[0]);
+					}
+				} catch (RuntimeException e) {
+					stream.fail(e);
+					throw e;
+				}
+				return 0;
+			}));
+			pool.shutdown();
+			try {
+				stream.drain(chunks.size());
+			} catch (IOException e) {
+				throw new ExecutionException("결과 출력 실패", e);
+			}
+			for (Future<Integer> future : futures) {
+				future.get();
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+		System.out.print(adaptive.describe());
+	}
+
+	/**
+	 * 작업 훔치기 실행
+	 *
+	 * 에이전트 수만큼의 ForkJoinPool에 에이전트별 루트 작업을 넣는다. 루트 작업을 맡은 워커 스레드가 그 에이전트가 되어
+	 * 배분 수만큼의 자기 몫을 작은 청크로 나눠 자기 덱에 넣고(fork) 뒤에서부터 처리한다.
+	 * 자기 몫을 먼저 끝낸 에이전트는 다른 에이전트 덱의 앞쪽(아직 손대지 않은 청크)을 훔쳐 처리하므로,
+	 * 배분 수는 우선 배정일 뿐 느린 작업이 몰린 에이전트가 있어도 다른 스레드가 놀지 않는다.
+	 * 처리 결과와 건수는 실제로 처리한 에이전트 기준으로 집계한다.
+	 */
+	private void executeWorkStealing(int[] jobs) throws InterruptedException, ExecutionException {
+		int agents = agentAllocations.size();
+		ResultStream stream = newStream(ResultStream.Order.COMPLETION);
+		Map<String, AgentStats> stats = new ConcurrentHashMap<>();
+		ThreadLocal<AgentStats> currentAgent = new ThreadLocal<>();
+		ForkJoinPool pool = new ForkJoinPool(agents);
+		try {
+			List<ForkJoinTask<?>> roots = new ArrayList<>();
+			long chunkCount = 0;
+			for (Map.Entry<String, List<int[]>> entry : planChunks(jobs.length, chunkSize(jobs.length)).entrySet()) {
+				AgentStats agentStats = stats.computeIfAbsent(entry.getKey(), AgentStats::new);
+				roots.add(pool.submit(new AgentRootTask(agentStats, jobs, entry.getValue(), currentAgent, stream)));
+				chunkCount += entry.getValue().size();
+			}
+			// 결과 출력 (청크가 끝나는 대로, 실제 처리한 에이전트 기준)
+			try {
+				stream.drain(chunkCount);
+			} catch (IOException e) {
+				throw new ExecutionException("결과 출력 실패", e);
+			}
+			for (ForkJoinTask<?> root : roots) {
+				root.join();
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+
+		for (String agent : agentAllocations.keySet()) {
+			AgentStats s = stats.get(agent);
+			System.out.printf("%s: 처리 %d건, 자기 청크 %d, 훔친 청크 %d, 처리 시간 %d ms%n", agent, s.jobs, s.ownChunks,
+					s.stolenChunks, TimeUnit.NANOSECONDS.toMillis(s.busyNanos));
+		}
+	}
+
+	// 에이전트 하나의 몫: 청크로 나눠 fork한 뒤 마지막 청크부터 join (훔쳐 가지 않은 청크는 직접 처리)
+	private class AgentRootTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final AgentStats owner;
+		private final int[] jobs;
+		private final List<int[]> ranges;
+		private final ThreadLocal<AgentStats> currentAgent;
+		private final ResultStream stream;
+
+		AgentRootTask(AgentStats owner, int[] jobs, List<int[]> ranges, ThreadLocal<AgentStats> currentAgent,
+				ResultStream stream) {
+			this.owner = owner;
+			this.jobs = jobs;
+			this.ranges = ranges;
+			this.currentAgent = currentAgent;
+			this.stream = stream;
+		}
+
+		@Override
+		protected void compute() {
+			currentAgent.set(owner); // 이 워커 스레드는 이후 이 에이전트로 동작
+			List<ChunkTask> chunks = new ArrayList<>();
+			for (int[] range : ranges) {
+				ChunkTask chunk = new ChunkTask(owner, jobs, range[0], range[1], currentAgent, stream);
+				chunk.fork();
+				chunks.add(chunk);
+			}
+			for (int i = chunks.size() - 1; i >= 0; i--) {
+				chunks.get(i).join();
+			}
+		}
+	}
+
+	// 청크 하나 처리. 실행 중인 스레드의 에이전트로 집계
+	private class ChunkTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final AgentStats preferred;
+		private final int[] jobs;
+		private final int from;
+		private final int to;
+		private final ThreadLocal<AgentStats> currentAgent;
+		private final ResultStream stream;
+
+		ChunkTask(AgentStats preferred, int[] jobs, int from, int to, ThreadLocal<AgentStats> currentAgent,
+				ResultStream stream) {
+			this.preferred = preferred;
+			this.jobs = jobs;
+			this.from = from;
+			this.to = to;
+			this.currentAgent = currentAgent;
+			this.stream = stream;
+		}
+
+		@Override
+		protected void compute() {
+			AgentStats agent = currentAgent.get();
+			if (agent == null) {
+				agent = preferred; // 루트 작업을 맡지 않은 보조 스레드
+			}
+			long start = System.nanoTime();
+			int[] results = new int[to - from];
+			try {
+				for (int i = from; i < to; i++) {
+					results[i - from] = processJob(agent.agentName, jobs[i], jobCost);
+				}
+				// 완료 순서 출력이므로 순번은 사용하지 않음
+				stream.publish(from, new ResultChunk(agent.agentName, jobs, from, results));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (RuntimeException e) {
+				stream.fail(e);
+				throw e;
+			}
+			long elapsed = System.nanoTime() - start;
+			synchronized (agent) {
+				agent.jobs += to - from;
+				agent.busyNanos += elapsed;
+				if (agent == preferred) {
+					agent.ownChunks++;
+				} else {
+					agent.stolenChunks++;
+				}
+			}
+		}
+	}
+
+	// 정책 파일 로드
+	public static Map<String, Integer> loadAllocations(String path) throws Exception {
+		Gson gson = new Gson();
+		try (FileReader reader = new FileReader(path)) {
+		    Type mapType = new TypeToken<Map<String, Integer>>(){}.getType();
+		    Map<String, Integer> result = gson.fromJson(reader, mapType);
+		    return result;
+		} catch (IOException e) {
+		    e.printStackTrace();
+		}
+		return null;
+	}
+
+	// 사용법: java ThreadDistributedWorker [static|steal|adaptive|distributed|virtual] [skew|slow|io] [completion] [결과파일]
+	//         [에이전트=작업자주소 ...] [checkpoint=로그파일]
+	//   distributed: 에이전트=주소 인자가 없으면 A/B/C → http://localhost:9001~9003
+	//   skew: 에이전트 A가 처리하는 작업은 건당 20ms, 나머지는 1ms 걸리도록 모의
+	//         (STATIC은 A가 자기 몫을 모두 20ms로 처리, 작업 훔치기는 다른 에이전트가 가져간 A 몫을 1ms로 처리)
+	//   slow: 에이전트 A 환경이 느려진 상황 (A는 건당 10ms, 나머지는 2ms)
+	//   io: 작업마다 원격 호출을 20ms 기다리는 상황
+	//   completion: 작업 순서 대신 완료 순서로 출력
+	//   checkpoint: 완료 범위를 로그에 기록하고, 로그가 이미 있으면 남은 범위만 실행 (결과 파일은 이어 씀)
+	public static void main(String[] args) throws Exception {
+		Map<String, Integer> allocations = loadAllocations("allocation.json");
+		List<String> options = Arrays.asList(args);
+		SchedulingMode mode = options.contains("steal") ? SchedulingMode.WORK_STEALING
+				: options.contains("adaptive") ? SchedulingMode.ADAPTIVE
+						: options.contains("distributed") ? SchedulingMode.DISTRIBUTED
+								: options.contains("virtual") ? SchedulingMode.VIRTUAL : SchedulingMode.STATIC;
+		ThreadDistributedWorker worker = new ThreadDistributedWorker(allocations, mode);
+		if (options.contains("skew")) {
+			worker.setJobCost((agent, job) -> "A".equals(agent) ? 20 : 1);
+		}
+		if (options.contains("slow")) {
+			worker.setJobCost((agent, job) -> "A".equals(agent) ? 10 : 2);
+		}
+		if (options.contains("io")) {
+			worker.setJobCost((agent, job) -> 20);
+		}
+		if (options.contains("completion")) {
+			worker.setOutputOrder(ResultStream.Order.COMPLETION, 64);
+		}
+		String resultFile = null;
+		String checkpointFile = null;
+		Map<String, String> endpoints = new LinkedHashMap<>();
+		for (String option : options) {
+			int eq = option.indexOf('=');
+			if (option.startsWith("checkpoint=")) {
+				checkpointFile = option.substring(eq + 1);
+			} else if (eq > 0) {
+				endpoints.put(option.substring(0, eq), option.substring(eq + 1));
+			} else if (option.contains(".")) {
+				resultFile = option;
+			}
+		}
+		if (mode == SchedulingMode.DISTRIBUTED) {
+			if (endpoints.isEmpty()) {
+				int port = 9001;
+				for (String agent : allocations.keySet()) {
+					endpoints.put(agent, "http://localhost:" + port++);
+				}
+			}
+			worker.setDistributed(endpoints, null, 4);
+		}
+
+		// 총 작업량은 100개 (A:50, B:30, C:20)
+		int[] jobs = new int[100];
+		for (int i = 0; i < 100; i++) {
+			jobs[i] = i + 1;
+		}
+
+		long start = System.nanoTime();
+		try (CheckpointLog log = checkpointFile != null ? CheckpointLog.open(Paths.get(checkpointFile), jobs) : null;
+				ResultSink sink = resultFile == null ? ResultSink.stdout()
+						: log != null ? ResultSink.file(Paths.get(resultFile), log.outputPosition())
+								: ResultSink.file(Paths.get(resultFile))) {
+			if (log != null && log.resumedJobs() > 0) {
+				System.out.printf("체크포인트에서 이어 실행: 완료 %d건 제외%n", log.resumedJobs());
+			}
+			worker.setCheckpoint(log);
+			worker.setResultSink(sink);
+			worker.distributeAndExecuteTasks(jobs);
+		}
+		System.out.printf("%s 완료 시간: %d ms%n", mode, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+	}
+}
@@ -0,0 +1,451 @@
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * 변환정보(원본값) 저장소 - 추가 전용 로그
+ *
+ * - 모든 고객의 변환정보를 하나의 로그 파일 끝에 이어 쓴다 (기존 레코드를 덮어쓰지 않음)
+ * - 쓰기 스레드 하나가 큐에 쌓인 레코드를 모아서 한 번에 쓰고 fsync 한다 (그룹 커밋)
+ * - 레코드 ID는 로그에 기록되는 순서대로 증가하므로, 레코드 ID → 파일 위치 인덱스를 long 배열 하나로 메모리에 둔다
+ *   언마스킹 시 배열에서 위치를 찾아 해당 레코드만 읽고, 고객 ID가 일치하는지 확인한다
+ * - 주기적으로 보관기간이 지난 레코드를 제외하고 새 로그로 다시 써서 교체한다 (컴팩션)
+ *   컴팩션은 쓰기 스레드에서 실행되므로 그동안 기록이 멈춘다: append의 future 완료가 로그 재작성 시간만큼 늦어지고,
+ *   쓰기 대기 레코드가 MAX_QUEUED에 이르면 append 호출자도 기다린다 (조회는 영향 없음).
+ *   컴팩션이 실패해도 다음 주기까지 다시 시도하지 않는다.
+ * - 시작 시 파일 끝의 찢어진 레코드(배치 기록 중 중단)만 잘라 낸다. 그 앞에서 손상이나 순서 오류가 보이면
+ *   뒤의 레코드를 버리지 않도록 복구하지 않고 시작을 중단한다 (IOException)
+ *
+ * 레코드 형식: [길이 int][CRC32 int][고객ID UTF][레코드ID long][생성시각 long][필드수 int]{[있음 boolean][원본값 UTF]}
+ */
+public class TransInfoStore {
+    private static final int MAX_BATCH = 1024;
+    private static final int MAX_QUEUED = 8 * 1024;  // 쓰기 대기 레코드 한도 (가득 차면 append 호출자가 대기)
+    private static final int HEADER_SIZE = 8; // 길이 + CRC
+
+    private final Path logPath;
+    private final long retentionMillis;
+    private final long compactionIntervalMillis;
+    private final BlockingQueue<PendingRecord> queue = new LinkedBlockingQueue<>(MAX_QUEUED);
+    private final AtomicLong nextRecordId = new AtomicLong(1);
+
+    // 현재 로그 파일과 인덱스 (컴팩션 시 통째로 교체)
+    private volatile Segment segment;
+
+    public TransInfoStore(Path logPath, long retentionMillis, long compactionIntervalMillis) throws IOException {
+        this.logPath = logPath;
+        this.retentionMillis = retentionMillis;
+        this.compactionIntervalMillis = compactionIntervalMillis;
+        this.segment = recover(logPath);
+        Thread t = new Thread(this::writeLoop, "transinfo-writer");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /**
+     * 변환정보 추가. 레코드 ID는 바로 정해지고(RecordFuture.recordId), 반환된 future는 디스크 기록(fsync) 후 완료된다.
+     * 쓰기 대기 레코드가 한도에 이르면 자리가 날 때까지 대기한다.
+     * originals: 필드 순서대로의 원본값 (저장하지 않는 필드는 null)
+     */
+    public RecordFuture append(String customerId, String[] originals) throws InterruptedException {
+        synchronized (queue) { // ID 발급 순서 = 큐 순서 = 로그 기록 순서
+            PendingRecord rec = new PendingRecord(customerId, nextRecordId.getAndIncrement(),
+                    System.currentTimeMillis(), originals);
+            queue.put(rec);
+            return rec.durable;
+        }
+    }
+
+    /**
+     * 변환정보 조회 (없으면 null)
+     */
+    public String[] lookup(String customerId, long recordId) throws IOException {
+        while (true) {
+            Segment seg = segment;
+            long offset = seg.offset(recordId);
+            if (offset < 0) {
+                return null;
+            }
+            try {
+                Record rec = readRecord(seg.channel, offset);
+                return rec.customerId.equals(customerId) ? rec.originals : null;
+            } catch (ClosedChannelException e) {
+                // 컴팩션으로 파일이 교체됨: 새 세그먼트에서 다시 조회
+            }
+        }
+    }
+
+    // 고객의 가장 최근 레코드 ID (없으면 -1)
+    public long latestRecordId(String customerId) {
+        Long id = segment.latest.get(customerId);
+        return id != null ? id : -1;
+    }
+
+    // 쓰기 스레드: 그룹 커밋 + 주기적 컴팩션
+    private void writeLoop() {
+        long nextCompaction = System.currentTimeMillis() + compactionIntervalMillis;
+        List<PendingRecord> batch = new ArrayList<>(MAX_BATCH);
+        while (true) {
+            try {
+                PendingRecord first = queue.poll(Math.max(1, nextCompaction - System.currentTimeMillis()),
+                        TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH - 1);
+                    writeBatch(batch);
+                    batch.clear();
+                }
+                if (System.currentTimeMillis() >= nextCompaction) {
+                    try {
+                        compact();
+                    } finally {
+                        // 실패해도 다음 주기로 미룸 (디스크 부족 등이 계속되는 동안 매번 로그 전체를 다시 쓰지 않도록)
+                        nextCompaction = System.currentTimeMillis() + compactionIntervalMillis;
+                    }
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (IOException e) {
+                for (PendingRecord rec : batch) {
+                    rec.durable.completeExceptionally(e);
+                }
+                batch.clear();
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void writeBatch(List<PendingRecord> batch) throws IOException {
+        Segment seg = segment;
+        ByteArrayOutputStream buf = new ByteArrayOutputStream(batch.size() * 128);
+        long[] offsets = new long[batch.size()];
+        long start = seg.channel.size();
+        for (int i = 0; i < batch.size(); i++) {
+            offsets[i] = start + buf.size();
+            buf.write(encode(batch.get(i)));
+        }
+        ByteBuffer bb = ByteBuffer.wrap(buf.toByteArray());
+        long position = start;
+        try {
+            while (bb.hasRemaining()) {
+                position += seg.channel.write(bb, position);
+            }
+            seg.channel.force(false); // 배치당 fsync 1회
+        } catch (IOException e) {
+            // 실패한 배치의 일부가 남으면 다음 배치가 그 뒤에 붙어 로그 중간이 손상되므로 배치 시작 위치로 되돌림
+            try {
+                seg.channel.truncate(start);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            PendingRecord rec = batch.get(i);
+            seg.put(rec.customerId, rec.recordId, offsets[i]);
+            rec.durable.complete(rec.recordId);
+        }
+    }
+
+    // 보관기간이 지난 레코드를 제외하고 새 파일로 다시 쓴 뒤 교체
+    private void compact() throws IOException {
+        Segment old = segment;
+        long cutoff = System.currentTimeMillis() - retentionMillis;
+        Path tmp = logPath.resolveSibling(logPath.getFileName() + ".compact");
+        long dropped = 0;
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long pos = 0;
+            long size = old.channel.size();
+            try (DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(Files.newInputStream(logPath), 1 << 16))) {
+                Record rec;
+                while ((rec = readNext(in, pos, size)) != null) {
+                    if (rec.createdAt >= cutoff) {
+                        ByteBuffer bb = ByteBuffer.wrap(rec.raw);
+                        while (bb.hasRemaining()) {
+                            out.write(bb);
+                        }
+                    } else {
+                        dropped++;
+                    }
+                    pos += rec.raw.length;
+                }
+            }
+            out.force(true);
+        }
+        if (dropped == 0) {
+            Files.delete(tmp);
+            return;
+        }
+        Files.move(tmp, logPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        segment = recover(logPath);
+        old.channel.close();
+        System.out.println("변환정보 로그 컴팩션: " + dropped + "건 제거");
+    }
+
+    /**
+     * 로그 파일을 처음부터 순차로 읽어 인덱스 재구성
+     * 파일 끝의 찢어진 레코드(TornRecordException 또는 그 뒤가 모두 0인 영역)만 잘라 내고,
+     * 파일 중간의 손상이나 레코드 ID 순서 오류는 IOException으로 시작을 중단한다.
+     */
+    private Segment recover(Path path) throws IOException {
+        FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            Segment seg = new Segment(ch);
+            long pos = 0;
+            long size = ch.size();
+            try (DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+                while (pos < size) {
+                    Record rec;
+                    try {
+                        rec = readNext(in, pos, size);
+                    } catch (IOException e) {
+                        if (e instanceof TornRecordException || zeroFilled(ch, pos, size)) {
+                            break; // 마지막 배치 기록 중 중단된 경우: 여기까지만 유효
+                        }
+                        throw new IOException("변환정보 로그 손상: " + path + " (위치 " + pos + ", 크기 " + size + ")", e);
+                    }
+                    seg.put(rec.customerId, rec.recordId, pos);
+                    nextRecordId.accumulateAndGet(rec.recordId + 1, Math::max);
+                    pos += rec.raw.length;
+                }
+            }
+            if (pos < size) {
+                System.out.println("변환정보 로그 끝의 불완전한 기록 " + (size - pos) + " bytes 제거");
+                ch.truncate(pos);
+            }
+            return seg;
+        } catch (IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    // [from, to) 가 모두 0인지 (파일 크기만 늘어나고 내용은 기록되지 못한 끝부분)
+    private static boolean zeroFilled(FileChannel ch, long from, long to) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(1 << 16);
+        for (long pos = from; pos < to; ) {
+            buf.clear();
+            buf.limit((int) Math.min(buf.capacity(), to - pos));
+            int n = ch.read(buf, pos);
+            if (n < 0) {
+                return true;
+            }
+            for (int i = 0; i < n; i++) {
+                if (buf.get(i) != 0) {
+                    return false;
+                }
+            }
+            pos += n;
+        }
+        return true;
+    }
+
+    private static byte[] encode(PendingRecord rec) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(payload);
+        out.writeUTF(rec.customerId);
+        out.writeLong(rec.recordId);
+        out.writeLong(rec.createdAt);
+        out.writeInt(rec.originals.length);
+        for (String value : rec.originals) {
+            out.writeBoolean(value != null);
+            if (value != null) {
+                out.writeUTF(value);
+            }
+        }
+        byte[] body = payload.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        ByteBuffer bb = ByteBuffer.allocate(HEADER_SIZE + body.length);
+        bb.putInt(body.length).putInt((int) crc.getValue()).put(body);
+        return bb.array();
+    }
+
+    private static Record readRecord(FileChannel ch, long pos) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(ch, header, pos);
+        int length = header.getInt(0);
+        if (length < 0 || pos + HEADER_SIZE + length > ch.size()) {
+            throw new IOException("incomplete record at " + pos);
+        }
+        ByteBuffer raw = ByteBuffer.allocate(HEADER_SIZE + length);
+        readFully(ch, raw, pos);
+        return decode(raw.array(), pos);
+    }
+
+    /**
+     * 순차 읽기 (복구, 컴팩션용). 파일 끝이면 null
+     * 레코드가 파일 끝을 넘거나, 파일 끝에서 끝나는 마지막 레코드가 손상됐으면 TornRecordException
+     */
+    private static Record readNext(DataInputStream in, long pos, long size) throws IOException {
+        if (pos >= size) {
+            return null;
+        }
+        if (size - pos < HEADER_SIZE) {
+            throw new TornRecordException("incomplete header at " + pos);
+        }
+        int length = in.readInt();
+        int crcValue = in.readInt();
+        if (length < 0) {
+            throw new IOException("invalid record length at " + pos);
+        }
+        if (pos + HEADER_SIZE + length > size) {
+            throw new TornRecordException("incomplete record at " + pos);
+        }
+        byte[] bytes = new byte[HEADER_SIZE + length];
+        ByteBuffer.wrap(bytes).putInt(length).putInt(crcValue);
+        in.readFully(bytes, HEADER_SIZE, length);
+        try {
+            return decode(bytes, pos);
+        } catch (IOException e) {
+            if (pos + bytes.length == size) {
+                throw new TornRecordException(e.getMessage() + " (last record)");
+            }
+            throw e;
+        }
+    }
+
+    // [길이][CRC][본문] 전체 바이트를 검증 후 해석
+    private static Record decode(byte[] bytes, long pos) throws IOException {
+        int length = bytes.length - HEADER_SIZE;
+        CRC32 crc = new CRC32();
+        crc.update(bytes, HEADER_SIZE, length);
+        if ((int) crc.getValue() != ByteBuffer.wrap(bytes).getInt(4)) {
+            throw new IOException("corrupt record at " + pos);
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, HEADER_SIZE, length));
+        Record rec = new Record();
+        rec.raw = bytes;
+        rec.customerId = in.readUTF();
+        rec.recordId = in.readLong();
+        rec.createdAt = in.readLong();
+        rec.originals = new String[in.readInt()];
+        for (int i = 0; i < rec.originals.length; i++) {
+            rec.originals[i] = in.readBoolean() ? in.readUTF() : null;
+        }
+        return rec;
+    }
+
+    private static void readFully(FileChannel ch, ByteBuffer buf, long pos) throws IOException {
+        while (buf.hasRemaining()) {
+            int n = ch.read(buf, pos + buf.position());
+            if (n < 0) {
+                throw new IOException("unexpected end of log");
+            }
+        }
+    }
+
+    /**
+     * 로그 파일 + 인덱스
+     * 인덱스: offsets[레코드ID - baseId] = 파일 위치 (-1: 없음). 쓰기 스레드만 추가하고 조회는 여러 스레드에서 한다.
+     */
+    static class Segment {
+        final FileChannel channel;
+        final Map<String, Long> latest = new ConcurrentHashMap<>();
+        private volatile long[] offsets = new long[1024];
+        private volatile long baseId = -1;
+        private volatile int count;
+
+        Segment(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        // 레코드 ID는 증가 순서로만 추가됨 (건너뛴 ID는 -1)
+        void put(String customerId, long recordId, long offset) throws IOException {
+            if (baseId < 0) {
+                baseId = recordId;
+            }
+            long index = recordId - baseId;
+            if (index < count || index >= Integer.MAX_VALUE - 8) {
+                throw new IOException("record id out of order: " + recordId);
+            }
+            long[] arr = offsets;
+            if (index >= arr.length) {
+                arr = Arrays.copyOf(arr, (int) Math.min(Integer.MAX_VALUE - 8, Math.max(arr.length * 2L, index + 1)));
+            }
+            for (int i = count; i < index; i++) {
+                arr[i] = -1;
+            }
+            arr[(int) index] = offset;
+            offsets = arr;
+            count = (int) index + 1; // 배열 교체 후에 개수를 공개해야 조회 스레드가 새 배열을 봄
+            latest.merge(customerId, recordId, Math::max);
+        }
+
+        long offset(long recordId) {
+            int n = count;
+            long[] arr = offsets;
+            long index = recordId - baseId;
+            return index >= 0 && index < n ? arr[(int) index] : -1;
+        }
+    }
+
+    static class PendingRecord {
+        final String customerId;
+        final long recordId;
+        final long createdAt;
+        final String[] originals;
+        final RecordFuture durable;
+
+        PendingRecord(String customerId, long recordId, long createdAt, String[] originals) {
+            this.customerId = customerId;
+            this.recordId = recordId;
+            this.createdAt = createdAt;
+            this.originals = originals;
+            this.durable = new RecordFuture(recordId);
+        }
+    }
+
+    /**
+     * 디스크 기록 완료 future (레코드 ID는 기록 전에도 조회 가능)
+     */
+    public static class RecordFuture extends CompletableFuture<Long> {
+        public final long recordId;
+
+        RecordFuture(long recordId) {
+            this.recordId = recordId;
+        }
+    }
+
+    // 파일 끝에서 기록이 중단된 레코드 (복구 시 잘라 내도 되는 손상)
+    static class TornRecordException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        TornRecordException(String message) {
+            super(message);
+        }
+    }
+
+    static class Record {
+        byte[] raw;
+        String customerId;
+        long recordId;
+        long createdAt;
+        String[] originals;
+    }
+}
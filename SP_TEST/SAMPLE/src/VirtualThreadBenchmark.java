@@ -0,0 +1,73 @@
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * I/O 대기 작업 비교: 고정 스레드풀(STATIC, 3개) vs 가상 스레드(VIRTUAL, 동시 처리 수별)
+ *
+ * 사용법: java VirtualThreadBenchmark [작업 수(기본 3000)] [건당 대기 ms(기본 10)] [동시 처리 수 ...(기본 16 64 256)]
+ * 작업은 원격 호출 응답을 기다리는 상황을 sleep으로 모의한다. 배분은 A:50%, B:30%, C:20%이고 출력은 버린다.
+ * JDK 21 미만에서는 VIRTUAL이 캐시 스레드풀(플랫폼 스레드)로 실행되므로 최대 스레드 수가 함께 늘어난다.
+ */
+public class VirtualThreadBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int jobCount = args.length > 0 ? Integer.parseInt(args[0]) : 3000;
+		int waitMillis = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+		int[] concurrencies = { 16, 64, 256 };
+		if (args.length > 2) {
+			concurrencies = new int[args.length - 2];
+			for (int i = 2; i < args.length; i++) {
+				concurrencies[i - 2] = Integer.parseInt(args[i]);
+			}
+		}
+		Map<String, Integer> allocations = BenchmarkSupport.allocations(jobCount);
+		int[] jobs = BenchmarkSupport.jobs(jobCount);
+
+		System.out.printf("작업 %,d건, 건당 대기 %d ms, 가상 스레드 %s%n", jobCount, waitMillis,
+				probeVirtualThreads() ? "사용" : "없음 (캐시 스레드풀로 대체)");
+		measure("고정 스레드풀 3개", allocations, jobs, waitMillis, ThreadDistributedWorker.SchedulingMode.STATIC, 0);
+		for (int concurrency : concurrencies) {
+			measure("가상 스레드 동시 " + concurrency, allocations, jobs, waitMillis,
+					ThreadDistributedWorker.SchedulingMode.VIRTUAL, concurrency);
+		}
+	}
+
+	private static boolean probeVirtualThreads() {
+		ExecutorService executor = ThreadDistributedWorker.newVirtualThreadExecutor();
+		if (executor == null) {
+			return false;
+		}
+		executor.shutdown();
+		return true;
+	}
+
+	private static void measure(String name, Map<String, Integer> allocations, int[] jobs, int waitMillis,
+			ThreadDistributedWorker.SchedulingMode mode, int concurrency) throws Exception {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		threads.resetPeakThreadCount();
+		int baseThreads = threads.getThreadCount();
+		ThreadDistributedWorker worker = new ThreadDistributedWorker(allocations, mode);
+		worker.setJobCost((agent, job) -> waitMillis);
+		if (concurrency > 0) {
+			worker.setVirtualConcurrency(concurrency);
+		}
+		long start = System.nanoTime();
+		// 에이전트별 처리 건수 출력은 측정 결과와 섞이지 않도록 버림
+		PrintStream console = System.out;
+		System.setOut(new PrintStream(BenchmarkSupport.nullOutput()));
+		try (ResultSink sink = ResultSink.output(BenchmarkSupport.nullOutput())) {
+			worker.setResultSink(sink);
+			worker.distributeAndExecuteTasks(jobs);
+		} finally {
+			System.setOut(console);
+		}
+		long elapsed = System.nanoTime() - start;
+		System.out.printf("%-16s: %,7d ms, 처리량 %,9.1f건/s, 추가 플랫폼 스레드 최대 %d개%n", name,
+				TimeUnit.NANOSECONDS.toMillis(elapsed), jobs.length / (elapsed / 1e9),
+				threads.getPeakThreadCount() - baseThreads);
+	}
+}
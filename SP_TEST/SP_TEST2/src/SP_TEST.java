@@ -16,20 +16,34 @@ public class SP_TEST {
     public static void main(String[] args) throws Exception {
         loadDictionary("DICTIONARY.TXT");
         loadStopwords("STOPWORD.TXT");
+
+        // 서버 모드: java SP_TEST --server [port] (줄 단위 TCP 프로토콜)
+        if (args.length > 0 && "--server".equals(args[0])) {
+            int port = args.length > 1 ? Integer.parseInt(args[1]) : 9020;
+            int workers = Runtime.getRuntime().availableProcessors();
+            new VectorizerServer(port, workers, SP_TEST::vectorize).run();
+            return;
+        }
+
         Scanner scanner = new Scanner(System.in);
         while (true) {
             String line = scanner.nextLine();
-            String[] tokens = line.trim().split("\\s+");
-            List<String> vectors = new ArrayList<>();
-            for (String token : tokens) {
-                String key = token.toLowerCase();
-                String vector = dictionary.get(key);
-                if (vector != null && !stopwords.contains(vector)) {
-                    vectors.add(vector);
-                }
+            System.out.println(vectorize(line));
+        }
+    }
+
+    // 문장 벡터화 (토큰화, 사전 변환, 불용어 제거)
+    static String vectorize(String line) {
+        String[] tokens = line.trim().split("\\s+");
+        List<String> vectors = new ArrayList<>();
+        for (String token : tokens) {
+            String key = token.toLowerCase();
+            String vector = dictionary.get(key);
+            if (vector != null && !stopwords.contains(vector)) {
+                vectors.add(vector);
             }
-            System.out.println(String.join(" ", vectors));
         }
+        return String.join(" ", vectors);
     }
 
     private static void loadDictionary(String path) throws IOException {
@@ -0,0 +1,226 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+
+/**
+ * java.nio 셀렉터 기반 줄 단위 TCP 벡터화 서버
+ *
+ * 프로토콜: 클라이언트가 문장을 줄바꿈('\n')으로 구분해 보내면, 같은 순서로 벡터 한 줄씩 응답한다.
+ * - 연결을 유지한 채 여러 문장을 응답을 기다리지 않고 연달아 보낼 수 있다 (파이프라이닝)
+ * - accept 전용 셀렉터 1개 + CPU 코어 수만큼의 워커 셀렉터 (연결은 라운드 로빈 배정)
+ * - 응답이 쌓이면 (클라이언트가 읽지 않으면) 해당 연결의 읽기를 멈춘다
+ * - 클라이언트가 쓰기를 닫으면 줄바꿈 없는 마지막 줄까지 응답한 뒤 연결을 닫는다
+ */
+public class VectorizerServer {
+    private static final int READ_BUFFER_SIZE = 8192;
+    private static final int MAX_LINE_LENGTH = 64 * 1024; // 한 줄 최대 길이 (초과 시 연결 종료)
+    private static final int MAX_PENDING_OUTPUT = 256 * 1024; // 연결별 미전송 응답 한도
+
+    private final int port;
+    private final Function<String, String> vectorizer;
+    private final Worker[] workers;
+
+    public VectorizerServer(int port, int workerCount, Function<String, String> vectorizer) {
+        this.port = port;
+        this.vectorizer = vectorizer;
+        this.workers = new Worker[workerCount];
+    }
+
+    // 서버 실행 (accept 루프, 반환하지 않음)
+    public void run() throws IOException {
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Worker();
+            Thread t = new Thread(workers[i], "vectorizer-worker-" + i);
+            t.setDaemon(true);
+            t.start();
+        }
+
+        try (Selector acceptSelector = Selector.open();
+                ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress(port));
+            server.configureBlocking(false);
+            server.register(acceptSelector, SelectionKey.OP_ACCEPT);
+            System.out.println("Vectorizer 서버 시작: port " + port + ", workers " + workers.length);
+
+            int next = 0;
+            while (true) {
+                acceptSelector.select();
+                acceptSelector.selectedKeys().clear();
+                SocketChannel ch;
+                while ((ch = server.accept()) != null) {
+                    ch.configureBlocking(false);
+                    ch.socket().setTcpNoDelay(true);
+                    workers[next].add(ch);
+                    next = (next + 1) % workers.length;
+                }
+            }
+        }
+    }
+
+    /**
+     * 워커 셀렉터: 배정된 연결들의 읽기/처리/쓰기를 담당
+     */
+    class Worker implements Runnable {
+        private final Selector selector;
+        private final Queue<SocketChannel> pending = new ConcurrentLinkedQueue<>();
+        private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+
+        Worker() throws IOException {
+            this.selector = Selector.open();
+        }
+
+        void add(SocketChannel ch) {
+            pending.add(ch);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                try {
+                    selector.select();
+                    SocketChannel ch;
+                    while ((ch = pending.poll()) != null) {
+                        ch.register(selector, SelectionKey.OP_READ, new Connection());
+                    }
+                    Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                    while (it.hasNext()) {
+                        SelectionKey key = it.next();
+                        it.remove();
+                        try {
+                            if (key.isValid() && key.isReadable()) {
+                                onReadable(key);
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                flush(key);
+                            }
+                        } catch (IOException e) {
+                            close(key);
+                        }
+                    }
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+
+        private void onReadable(SelectionKey key) throws IOException {
+            SocketChannel ch = (SocketChannel) key.channel();
+            Connection conn = (Connection) key.attachment();
+            readBuffer.clear();
+            int n = ch.read(readBuffer);
+            if (n < 0) {
+                // 클라이언트가 입력을 닫음: 줄바꿈 없이 끝난 마지막 줄도 처리하고, 남은 응답만 보내고 종료
+                if (conn.hasPartialLine()) {
+                    conn.appendResponse(vectorizer.apply(conn.takeLine()));
+                }
+                conn.inputClosed = true;
+                key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+                flush(key);
+                return;
+            }
+            readBuffer.flip();
+            while (readBuffer.hasRemaining()) {
+                byte b = readBuffer.get();
+                if (b == '\n') {
+                    conn.appendResponse(vectorizer.apply(conn.takeLine()));
+                } else if (!conn.appendLineByte(b)) {
+                    close(key); // 줄이 너무 김
+                    return;
+                }
+            }
+            flush(key);
+        }
+
+        // 응답 전송. 다 못 보내면 OP_WRITE 등록, 미전송량이 한도를 넘으면 읽기 중지
+        private void flush(SelectionKey key) throws IOException {
+            SocketChannel ch = (SocketChannel) key.channel();
+            Connection conn = (Connection) key.attachment();
+            ByteBuffer out = conn.output;
+            out.flip();
+            ch.write(out);
+            out.compact();
+
+            int ops = 0;
+            if (out.position() > 0) {
+                ops |= SelectionKey.OP_WRITE;
+            } else if (conn.inputClosed) {
+                close(key);
+                return;
+            }
+            if (!conn.inputClosed && out.position() < MAX_PENDING_OUTPUT) {
+                ops |= SelectionKey.OP_READ;
+            }
+            key.interestOps(ops);
+        }
+
+        private void close(SelectionKey key) {
+            key.cancel();
+            try {
+                key.channel().close();
+            } catch (IOException e) {
+                // 무시
+            }
+        }
+    }
+
+    /**
+     * 연결별 상태: 미완성 줄 버퍼와 미전송 응답 버퍼
+     */
+    static class Connection {
+        private byte[] line = new byte[256];
+        private int lineLength;
+        private ByteBuffer output = ByteBuffer.allocate(4096);
+        private boolean inputClosed;
+
+        boolean appendLineByte(byte b) {
+            if (lineLength == line.length) {
+                if (line.length >= MAX_LINE_LENGTH) {
+                    return false;
+                }
+                line = Arrays.copyOf(line, Math.min(line.length * 2, MAX_LINE_LENGTH));
+            }
+            line[lineLength++] = b;
+            return true;
+        }
+
+        boolean hasPartialLine() {
+            return lineLength > 0;
+        }
+
+        String takeLine() {
+            int len = lineLength;
+            if (len > 0 && line[len - 1] == '\r') {
+                len--;
+            }
+            lineLength = 0;
+            return new String(line, 0, len, StandardCharsets.UTF_8);
+        }
+
+        void appendResponse(String vector) {
+            byte[] bytes = vector.getBytes(StandardCharsets.UTF_8);
+            if (output.remaining() < bytes.length + 1) {
+                int size = output.capacity();
+                while (size - output.position() < bytes.length + 1) {
+                    size *= 2;
+                }
+                ByteBuffer bigger = ByteBuffer.allocate(size);
+                output.flip();
+                bigger.put(output);
+                output = bigger;
+            }
+            output.put(bytes);
+            output.put((byte) '\n');
+        }
+    }
+}
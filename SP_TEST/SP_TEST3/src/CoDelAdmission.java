@@ -0,0 +1,128 @@
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.handler.HandlerWrapper;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+
+import com.google.gson.JsonObject;
+
+/**
+ * 큐 지연 기반 과부하 차단 (CoDel)
+ *
+ * Jetty 스레드풀 큐에서 작업이 대기한 시간(sojourn time)을 측정한다.
+ * 최근 interval 동안의 최소 대기시간이 target을 넘으면 과부하 상태로 보고,
+ * 과부하 상태에서 대기시간이 2 * target을 넘은 요청은 핸들러 실행 없이 바로 503으로 응답한다.
+ * (최소값 기준이므로 순간적인 버스트에는 반응하지 않고, 큐가 계속 차 있을 때만 차단)
+ */
+public class CoDelAdmission {
+	private final long targetNanos;
+	private final long intervalNanos;
+
+	// 현재 스레드가 실행 중인 작업의 큐 대기시간
+	private static final ThreadLocal<long[]> currentSojourn = ThreadLocal.withInitial(() -> new long[1]);
+
+	private long intervalEnd;
+	private long minDelay = Long.MAX_VALUE;
+	private volatile boolean overloaded;
+
+	// 메트릭
+	private final LongAdder admitted = new LongAdder();
+	private final LongAdder shed = new LongAdder();
+
+	public CoDelAdmission(long targetMs, long intervalMs) {
+		this.targetNanos = TimeUnit.MILLISECONDS.toNanos(targetMs);
+		this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMs);
+		this.intervalEnd = System.nanoTime() + intervalNanos;
+	}
+
+	/**
+	 * 큐 대기시간을 반영하고 이 요청을 차단할지 판단한다.
+	 */
+	public synchronized boolean isOverloaded(long delayNanos) {
+		long now = System.nanoTime();
+		if (now - intervalEnd > 0) {
+			// interval 종료: 이번 구간의 최소 대기시간으로 과부하 여부 갱신
+			overloaded = minDelay > targetNanos;
+			minDelay = delayNanos;
+			intervalEnd = now + intervalNanos;
+		} else if (delayNanos < minDelay) {
+			minDelay = delayNanos;
+		}
+		return overloaded && delayNanos > 2 * targetNanos;
+	}
+
+	// 큐 대기시간을 측정하는 스레드풀 생성
+	public QueuedThreadPool newThreadPool(int maxThreads) {
+		return new QueueTimingThreadPool(maxThreads);
+	}
+
+	// 기존 핸들러 앞단에 과부하 차단 핸들러 연결
+	public HandlerWrapper wrap(org.eclipse.jetty.server.Handler handler) {
+		AdmissionHandler wrapper = new AdmissionHandler();
+		wrapper.setHandler(handler);
+		return wrapper;
+	}
+
+	public JsonObject metrics() {
+		JsonObject obj = new JsonObject();
+		obj.addProperty("admitted", admitted.sum());
+		obj.addProperty("shed", shed.sum());
+		obj.addProperty("overloaded", overloaded);
+		obj.addProperty("targetMs", TimeUnit.NANOSECONDS.toMillis(targetNanos));
+		obj.addProperty("intervalMs", TimeUnit.NANOSECONDS.toMillis(intervalNanos));
+		return obj;
+	}
+
+	/**
+	 * 큐에 들어간 시각을 기록해 두었다가, 작업이 실행될 때 대기시간을 ThreadLocal에 남기는 스레드풀
+	 */
+	static class QueueTimingThreadPool extends QueuedThreadPool {
+		QueueTimingThreadPool(int maxThreads) {
+			super(maxThreads);
+		}
+
+		@Override
+		public void execute(Runnable job) {
+			long enqueued = System.nanoTime();
+			super.execute(() -> {
+				long[] sojourn = currentSojourn.get();
+				sojourn[0] = System.nanoTime() - enqueued;
+				try {
+					job.run();
+				} finally {
+					sojourn[0] = 0;
+				}
+			});
+		}
+	}
+
+	/**
+	 * 과부하 시 빠른 503 응답
+	 */
+	class AdmissionHandler extends HandlerWrapper {
+		@Override
+		public void handle(String target, Request baseRequest, HttpServletRequest request,
+				HttpServletResponse response) throws IOException, ServletException {
+			// 스레드풀 큐 대기시간과 요청 수신 후 경과시간 중 큰 값
+			long received = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis() - baseRequest.getTimeStamp());
+			long delay = Math.max(currentSojourn.get()[0], received);
+			if (isOverloaded(delay)) {
+				shed.increment();
+				response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+				response.setHeader("Retry-After", "1");
+				response.setContentType("application/json");
+				response.getWriter().write("{\"error\":\"overloaded\"}");
+				baseRequest.setHandled(true);
+				return;
+			}
+			admitted.increment();
+			super.handle(target, baseRequest, request, response);
+		}
+	}
+}
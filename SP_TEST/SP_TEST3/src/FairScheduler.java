@@ -0,0 +1,106 @@
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.gson.JsonObject;
+
+/**
+ * 모델별 가중치 공정 큐 (Start-time Fair Queueing)
+ *
+ * 모델 동시 호출 수가 capacity에 도달하면 이후 작업은 대기열에 들어가고,
+ * 클라이언트 가중치에 따라 계산된 가상 시각 순서로 실행 권한을 받는다.
+ * 한 클라이언트가 대기열을 채워도 다른 클라이언트의 작업이 사이사이 끼어든다.
+ * 클라이언트 ID는 요청 헤더 값이므로 마지막 종료 시각은 최근 요청한 MAX_CLIENTS개만 기억한다.
+ * (밀려난 클라이언트는 다음 요청이 현재 가상 시각에서 시작하므로 최대 1/가중치만큼 앞당겨질 뿐이다)
+ */
+public class FairScheduler {
+	static final int MAX_CLIENTS = 10000;
+
+	private final int capacity;
+	private int active;
+	private double virtualTime;
+	private long seq;
+	private final Map<String, Double> lastFinish = new LinkedHashMap<String, Double>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Double> eldest) {
+			return size() > MAX_CLIENTS;
+		}
+	};
+	private final PriorityQueue<Waiter> waiters = new PriorityQueue<>(
+			Comparator.comparingDouble((Waiter w) -> w.start).thenComparingLong(w -> w.seq));
+
+	// 메트릭
+	private final LongAdder immediate = new LongAdder();
+	private final LongAdder queued = new LongAdder();
+
+	public FairScheduler(int capacity) {
+		this.capacity = capacity;
+	}
+
+	/**
+	 * 실행 권한 요청. 여유가 있으면 즉시 완료된 future를 반환한다.
+	 * 대기를 포기하려면 반환된 future를 cancel 한다.
+	 */
+	public synchronized CompletableFuture<Void> acquire(String clientId, int weight) {
+		CompletableFuture<Void> permit = new CompletableFuture<>();
+		if (active < capacity && waiters.isEmpty()) {
+			active++;
+			immediate.increment();
+			permit.complete(null);
+			return permit;
+		}
+		double start = Math.max(virtualTime, lastFinish.getOrDefault(clientId, 0.0));
+		lastFinish.put(clientId, start + 1.0 / Math.max(weight, 1));
+		waiters.add(new Waiter(permit, start, seq++));
+		queued.increment();
+		return permit;
+	}
+
+	/**
+	 * 실행 권한 반납. 대기 중인 작업이 있으면 권한을 그대로 넘긴다.
+	 */
+	public void release() {
+		while (true) {
+			Waiter next;
+			synchronized (this) {
+				next = waiters.poll();
+				if (next == null) {
+					active--;
+					return;
+				}
+				virtualTime = next.start;
+			}
+			// 이미 취소된 대기자면 다음 대기자에게 넘긴다
+			if (next.permit.complete(null)) {
+				return;
+			}
+		}
+	}
+
+	public synchronized JsonObject metrics() {
+		JsonObject obj = new JsonObject();
+		obj.addProperty("capacity", capacity);
+		obj.addProperty("active", active);
+		obj.addProperty("queueDepth", waiters.size());
+		obj.addProperty("immediate", immediate.sum());
+		obj.addProperty("queued", queued.sum());
+		return obj;
+	}
+
+	static class Waiter {
+		final CompletableFuture<Void> permit;
+		final double start;
+		final long seq;
+
+		Waiter(CompletableFuture<Void> permit, double start, long seq) {
+			this.permit = permit;
+			this.start = start;
+			this.seq = seq;
+		}
+	}
+}
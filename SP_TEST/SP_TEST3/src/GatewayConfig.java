@@ -0,0 +1,87 @@
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.gson.Gson;
+
+/**
+ * 게이트웨이 설정 (GATEWAY.JSON)
+ *
+ * 파일이 없거나 항목이 빠져 있으면 아래 기본값을 사용한다.
+ */
+public class GatewayConfig {
+	// 요청 헤징: 헤지 요청 수를 전체 모델 호출 대비 비율로 제한 (0.05 = 최대 5% 추가 부하)
+	double hedgeBudgetRatio = 0.05;
+	// 헤징 예산의 최대 누적량 (한 번에 허용되는 헤지 요청 수)
+	int hedgeBudgetBurst = 10;
+	// p95 산출에 필요한 최소 응답시간 표본 수 (이전에는 헤징하지 않음)
+	int hedgeMinSamples = 20;
+
+	// 기한: 요청에 timeoutMs가 없을 때 사용할 요청 전체 시간 예산
+	long defaultTimeoutMs = 10000;
+	// 기한: 클라이언트가 지정할 수 있는 최대 시간 예산
+	long maxTimeoutMs = 60000;
+	// 모델 서버 연결 타임아웃
+	long connectTimeoutMs = 1000;
+
+	// 속도 제한: 클라이언트+모델별 토큰 버킷 기본값 (초당 질의 수, 버스트)
+	RateLimit defaultRateLimit = new RateLimit(50, 100);
+	// 속도 제한: 클라이언트별 개별 설정 (X-Client-Id 기준)
+	Map<String, RateLimit> clientRateLimits = new HashMap<>();
+	// 공정 큐: 모델별 동시 호출 한도 (초과 시 가중치 공정 큐에서 대기)
+	int modelConcurrency = 32;
+	// 공정 큐: 클라이언트별 가중치 (기본 1)
+	Map<String, Integer> clientWeights = new HashMap<>();
+
+	// 과부하 차단(CoDel): 허용 큐 대기시간 목표와 판정 구간
+	long codelTargetMs = 5;
+	long codelIntervalMs = 100;
+	// Jetty 서버 최대 스레드 수
+	int maxThreads = 200;
+
+	// 처리 단계: CPU 단계 스레드 수 (0이면 코어 수)와 큐 크기 (가득 차면 새 요청은 503)
+	int cpuThreads = 0;
+	int cpuQueueCapacity = 1024;
+	// 처리 단계: I/O 단계에서 대기 + 진행 중일 수 있는 모델 호출 수
+	int ioMaxPending = 4096;
+	// 한 요청(배치)에서 동시에 모델을 호출하는 질의 수
+	int batchParallelism = 4;
+	// 스트리밍 응답에서 전송 전 결과를 보관하는 최대 슬롯 수 (앞선 결과를 기다리는 결과 포함)
+	int streamWindow = 256;
+
+	public static class RateLimit {
+		double ratePerSec;
+		int burst;
+
+		public RateLimit() {
+		}
+
+		public RateLimit(double ratePerSec, int burst) {
+			this.ratePerSec = ratePerSec;
+			this.burst = burst;
+		}
+	}
+
+	RateLimit rateLimitFor(String clientId) {
+		RateLimit limit = clientRateLimits != null ? clientRateLimits.get(clientId) : null;
+		return limit != null ? limit : defaultRateLimit;
+	}
+
+	int weightFor(String clientId) {
+		Integer weight = clientWeights != null ? clientWeights.get(clientId) : null;
+		return weight != null ? weight : 1;
+	}
+
+	public static GatewayConfig load(String path) throws IOException {
+		if (!new File(path).exists()) {
+			return new GatewayConfig();
+		}
+		try (Reader reader = new FileReader(path)) {
+			GatewayConfig config = new Gson().fromJson(reader, GatewayConfig.class);
+			return config != null ? config : new GatewayConfig();
+		}
+	}
+}
@@ -0,0 +1,104 @@
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.gson.JsonObject;
+
+/**
+ * 모델 호출 I/O 단계 (논블로킹)
+ *
+ * 스레드를 점유하지 않고 Jetty HttpClient 비동기 호출로 모델 서버를 부른다.
+ * - 대기 + 진행 중인 호출 수를 maxPending 으로 제한 (초과 시 즉시 실패)
+ * - 모델별 가중치 공정 큐(FairScheduler)에서 실행 권한을 받은 뒤 호출
+ * - 기한이 지나면 대기/호출 모두 TimeoutException 으로 종료
+ */
+public class IoStage {
+	private final ModelClient modelClient;
+	private final int maxPending;
+	private final Map<String, FairScheduler> schedulers = new HashMap<>();
+	private final AtomicInteger pending = new AtomicInteger();
+
+	// 메트릭
+	private final LongAdder completed = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder serviceNanos = new LongAdder();
+
+	public IoStage(ModelClient modelClient, List<SP_TEST.ModelInfo> models, int modelConcurrency, int maxPending) {
+		this.modelClient = modelClient;
+		this.maxPending = maxPending;
+		for (SP_TEST.ModelInfo m : models) {
+			schedulers.put(m.modelname, new FairScheduler(modelConcurrency));
+		}
+	}
+
+	/**
+	 * 모델 호출 요청. 반환된 future를 cancel 하면 대기열 이탈 또는 진행 중인 요청 중단
+	 */
+	public CompletableFuture<String> submit(SP_TEST.ModelInfo model, String clientId, int weight, String processed,
+			long deadline) {
+		if (pending.incrementAndGet() > maxPending) {
+			pending.decrementAndGet();
+			rejected.increment();
+			return CompletableFuture.failedFuture(new RejectedExecutionException("io stage full"));
+		}
+		long start = System.nanoTime();
+		FairScheduler scheduler = schedulers.get(model.modelname);
+		CompletableFuture<String> result = new CompletableFuture<>();
+		CompletableFuture<Void> permit = scheduler.acquire(clientId, weight);
+		permit.orTimeout(Math.max(1, deadline - start), TimeUnit.NANOSECONDS);
+
+		permit.whenComplete((v, e) -> {
+			if (e != null) {
+				result.completeExceptionally(e); // 공정 큐 대기 중 기한 초과
+				return;
+			}
+			if (result.isDone()) {
+				scheduler.release(); // 권한을 받기 직전에 취소됨
+				return;
+			}
+			CompletableFuture<String> call = modelClient.classify(model, processed, deadline);
+			call.whenComplete((code, err) -> {
+				scheduler.release();
+				if (err != null) {
+					result.completeExceptionally(err);
+				} else {
+					result.complete(code);
+				}
+			});
+			result.whenComplete((r, err) -> call.cancel(true));
+		});
+		result.whenComplete((r, e) -> {
+			permit.cancel(true); // 아직 대기 중이면 대기열에서 이탈
+			pending.decrementAndGet();
+			serviceNanos.add(System.nanoTime() - start);
+			completed.increment();
+		});
+		return result;
+	}
+
+	public JsonObject metrics() {
+		JsonObject obj = new JsonObject();
+		long done = completed.sum();
+		int queueDepth = 0;
+		JsonObject queues = new JsonObject();
+		for (Map.Entry<String, FairScheduler> e : schedulers.entrySet()) {
+			JsonObject q = e.getValue().metrics();
+			queueDepth += q.get("queueDepth").getAsInt();
+			queues.add(e.getKey(), q);
+		}
+		obj.addProperty("name", "io");
+		obj.addProperty("pending", pending.get());
+		obj.addProperty("queueDepth", queueDepth);
+		obj.addProperty("maxPending", maxPending);
+		obj.addProperty("completed", done);
+		obj.addProperty("rejected", rejected.sum());
+		obj.addProperty("avgServiceMs", done == 0 ? 0.0 : serviceNanos.sum() / 1_000_000.0 / done);
+		obj.add("fairQueue", queues);
+		return obj;
+	}
+}
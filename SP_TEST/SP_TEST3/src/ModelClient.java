@@ -0,0 +1,259 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.client.api.Request;
+import org.eclipse.jetty.client.api.Result;
+import org.eclipse.jetty.client.util.BufferingResponseListener;
+import org.eclipse.jetty.client.util.StringContentProvider;
+import org.eclipse.jetty.http.HttpHeader;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+
+/**
+ * 모델 서버 호출 클라이언트
+ *
+ * - Jetty HttpClient를 한 번만 시작하여 모든 요청에서 재사용
+ * - 요청 헤징: 분류 요청은 멱등이므로, 관측된 p95 시간 안에 응답이 없으면
+ *   다른 replica(없으면 같은 URL)로 같은 요청을 한 번 더 보내고 먼저 온 응답을 사용한다.
+ *   늦은 쪽 요청은 abort 한다.
+ * - 헤징 예산: 모델 호출마다 hedgeBudgetRatio 만큼 예산이 쌓이고 헤지 1회에 1을 소모
+ * - 응답시간은 모든 시도를 원 요청 시작 시각부터 잰다. 취소되거나 기한을 넘긴 시도는
+ *   "적어도 그만큼 걸렸다"는 중도절단 표본으로 남겨, 빠른 승자만 남아 p95가 낮아지지 않게 한다.
+ */
+public class ModelClient {
+	private static final Gson gson = new Gson();
+	private static final long BUDGET_UNIT = 1000; // 예산 1 = 1000 단위 (정수 연산용)
+
+	private final HttpClient httpClient = new HttpClient();
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread t = new Thread(r, "hedge-timer");
+		t.setDaemon(true);
+		return t;
+	});
+	private final Map<String, LatencyTracker> trackers = new ConcurrentHashMap<>();
+	private final GatewayConfig config;
+
+	// 헤징 예산 (BUDGET_UNIT 단위)
+	private final AtomicLong hedgeBudget = new AtomicLong();
+	private final long depositPerCall;
+	private final long maxBudget;
+
+	// 메트릭
+	private final LongAdder modelCalls = new LongAdder();
+	private final LongAdder hedgesSent = new LongAdder();
+	private final LongAdder hedgeWins = new LongAdder();
+	private final LongAdder hedgeBudgetDenied = new LongAdder();
+	private final LongAdder failures = new LongAdder();
+
+	public ModelClient(GatewayConfig config) {
+		this.config = config;
+		this.depositPerCall = Math.round(config.hedgeBudgetRatio * BUDGET_UNIT);
+		this.maxBudget = config.hedgeBudgetBurst * BUDGET_UNIT;
+	}
+
+	public void start() throws Exception {
+		httpClient.setConnectTimeout(config.connectTimeoutMs);
+		httpClient.start();
+	}
+
+	public void stop() throws Exception {
+		scheduler.shutdownNow();
+		httpClient.stop();
+	}
+
+	/**
+	 * 전처리된 문장을 모델 서버로 보내 분류 코드를 비동기로 받는다.
+	 * deadline(System.nanoTime 기준)이 지나면 모든 시도가 TimeoutException으로 중단된다.
+	 */
+	public CompletableFuture<String> classify(SP_TEST.ModelInfo model, String processed, long deadline) {
+		modelCalls.increment();
+		depositBudget();
+
+		String json = String.format("{\"query\":\"%s\"}", processed);
+		LatencyTracker tracker = trackers.computeIfAbsent(model.modelname, k -> new LatencyTracker());
+		CompletableFuture<String> result = new CompletableFuture<>();
+		AtomicInteger inFlight = new AtomicInteger(1);
+		long callStart = System.nanoTime();
+
+		Request primary = send(model.url, json, callStart, deadline, result, tracker, inFlight, false);
+		result.whenComplete((r, e) -> primary.abort(new CancellationException("hedge won")));
+
+		long p95 = tracker.p95Nanos(config.hedgeMinSamples);
+		if (model.hedge && p95 > 0 && System.nanoTime() + p95 < deadline) {
+			ScheduledFuture<?> timer = scheduler.schedule(() -> {
+				if (result.isDone()) {
+					return;
+				}
+				if (!tryAcquireBudget()) {
+					hedgeBudgetDenied.increment();
+					return;
+				}
+				hedgesSent.increment();
+				inFlight.incrementAndGet();
+				Request hedge = send(pickReplica(model), json, callStart, deadline, result, tracker, inFlight, true);
+				result.whenComplete((r, e) -> hedge.abort(new CancellationException("primary won")));
+			}, p95, TimeUnit.NANOSECONDS);
+			result.whenComplete((r, e) -> timer.cancel(false));
+		}
+		return result;
+	}
+
+	// callStart: 원 요청(primary) 시작 시각. 헤지 시도의 응답시간도 여기서부터 잰다.
+	private Request send(String url, String json, long callStart, long deadline, CompletableFuture<String> result,
+			LatencyTracker tracker, AtomicInteger inFlight, boolean hedge) {
+		long start = System.nanoTime();
+		// 남은 기한을 Jetty 요청 전체 타임아웃으로 적용
+		long timeoutMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - start));
+		Request request = httpClient.POST(url).header(HttpHeader.CONTENT_TYPE, "application/json")
+				.content(new StringContentProvider(json), "application/json")
+				.timeout(timeoutMs, TimeUnit.MILLISECONDS);
+		request.send(new BufferingResponseListener() {
+			@Override
+			public void onComplete(Result r) {
+				long elapsed = System.nanoTime() - callStart;
+				if (!r.isFailed() && r.getResponse().getStatus() == 200) {
+					try {
+						JsonObject res = gson.fromJson(getContentAsString(), JsonObject.class);
+						String code = res.get("result").getAsString();
+						tracker.record(elapsed, false);
+						if (result.complete(code) && hedge) {
+							hedgeWins.increment();
+						}
+						return;
+					} catch (RuntimeException e) {
+						// 응답 형식 오류는 실패로 처리
+					}
+				} else if (r.isFailed() && isCensored(r.getFailure())) {
+					// 진 쪽으로 취소됐거나 기한을 넘긴 시도: 실제 응답시간은 elapsed 이상
+					tracker.record(elapsed, true);
+				}
+				// 다른 시도가 남아 있으면 그 결과를 기다린다
+				if (inFlight.decrementAndGet() == 0 && !result.isDone()) {
+					failures.increment();
+					Throwable cause = r.isFailed() ? r.getFailure()
+							: new IllegalStateException("model status " + r.getResponse().getStatus());
+					result.completeExceptionally(cause);
+				}
+			}
+		});
+		return request;
+	}
+
+	private static boolean isCensored(Throwable failure) {
+		return failure instanceof CancellationException || failure instanceof TimeoutException;
+	}
+
+	// 헤지 요청 대상: replica가 있으면 순환 선택, 없으면 원래 URL
+	private String pickReplica(SP_TEST.ModelInfo model) {
+		List<String> replicas = model.replicas;
+		if (replicas == null || replicas.isEmpty()) {
+			return model.url;
+		}
+		int idx = (int) (hedgesSent.sum() % replicas.size());
+		return replicas.get(idx);
+	}
+
+	private void depositBudget() {
+		long cur;
+		do {
+			cur = hedgeBudget.get();
+			if (cur >= maxBudget) {
+				return;
+			}
+		} while (!hedgeBudget.compareAndSet(cur, Math.min(maxBudget, cur + depositPerCall)));
+	}
+
+	private boolean tryAcquireBudget() {
+		long cur;
+		do {
+			cur = hedgeBudget.get();
+			if (cur < BUDGET_UNIT) {
+				return false;
+			}
+		} while (!hedgeBudget.compareAndSet(cur, cur - BUDGET_UNIT));
+		return true;
+	}
+
+	// 메트릭 조회 (/metrics)
+	public JsonObject metrics() {
+		JsonObject obj = new JsonObject();
+		long calls = modelCalls.sum();
+		long hedges = hedgesSent.sum();
+		obj.addProperty("modelCalls", calls);
+		obj.addProperty("failures", failures.sum());
+		obj.addProperty("hedgesSent", hedges);
+		obj.addProperty("hedgeWins", hedgeWins.sum());
+		obj.addProperty("hedgeBudgetDenied", hedgeBudgetDenied.sum());
+		obj.addProperty("hedgeRate", calls == 0 ? 0.0 : (double) hedges / calls);
+		JsonObject p95 = new JsonObject();
+		for (Map.Entry<String, LatencyTracker> e : trackers.entrySet()) {
+			p95.addProperty(e.getKey(), e.getValue().p95Nanos(1) / 1_000_000.0);
+		}
+		obj.add("p95Ms", p95);
+		return obj;
+	}
+
+	/**
+	 * 최근 응답시간 표본(링 버퍼)으로 p95를 계산
+	 * 중도절단 표본(취소/기한 초과, 실제 값은 그 이상)이 섞이므로 Kaplan-Meier 생존함수로 추정한다.
+	 * 중도절단 표본이 많아 95%에 도달하지 못하면 가장 큰 표본 값을 쓴다.
+	 * 정렬 비용을 줄이기 위해 일정 표본마다 한 번만 다시 계산한다.
+	 */
+	static class LatencyTracker {
+		private static final int WINDOW = 1024;
+		private static final int RECOMPUTE_EVERY = 64;
+
+		// 표본 값을 2배 하고 중도절단이면 +1 한 값으로 저장 (정렬 시 같은 값이면 관측 표본이 먼저)
+		private final long[] samples = new long[WINDOW];
+		private int count;
+		private volatile long cachedP95;
+		private volatile int sampleCount;
+
+		synchronized void record(long nanos, boolean censored) {
+			samples[count % WINDOW] = (Math.max(0, nanos) << 1) | (censored ? 1 : 0);
+			count++;
+			if (count <= RECOMPUTE_EVERY || count % RECOMPUTE_EVERY == 0) {
+				int n = Math.min(count, WINDOW);
+				long[] copy = Arrays.copyOf(samples, n);
+				Arrays.sort(copy);
+				cachedP95 = percentile(copy, 0.95);
+			}
+			sampleCount = count;
+		}
+
+		// 정렬된 표본에서 Kaplan-Meier 분위수
+		private static long percentile(long[] sorted, double q) {
+			double survival = 1.0;
+			int atRisk = sorted.length;
+			for (long s : sorted) {
+				if ((s & 1) == 0) {
+					survival *= 1.0 - 1.0 / atRisk;
+					if (survival <= 1.0 - q + 1e-9) {
+						return s >>> 1;
+					}
+				}
+				atRisk--;
+			}
+			return sorted[sorted.length - 1] >>> 1;
+		}
+
+		// 표본이 부족하면 0 반환
+		long p95Nanos(int minSamples) {
+			return sampleCount >= minSamples ? cachedP95 : 0;
+		}
+	}
+}
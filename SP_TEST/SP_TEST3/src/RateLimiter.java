@@ -0,0 +1,118 @@
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.gson.JsonObject;
+
+/**
+ * 클라이언트+모델별 토큰 버킷 속도 제한
+ *
+ * 버킷 상태를 "다음 토큰이 생기는 이론적 시각(TAT)" 하나로 표현하여 (GCRA 방식)
+ * 락 없이 AtomicLong CAS 한 번으로 토큰을 소비한다.
+ *
+ * 클라이언트 ID는 요청 헤더 값이므로 맵이 끝없이 커지지 않도록
+ * - 가득 찬 채 채움 주기 이상 쓰이지 않은 버킷은 주기적으로 지운다 (다시 만들면 같은 상태)
+ * - 클라이언트별 제한 횟수는 MAX_TRACKED_CLIENTS개까지만 따로 세고 나머지는 "(other)"로 합친다
+ */
+public class RateLimiter {
+	static final int MAX_TRACKED_CLIENTS = 1000;
+	static final String OTHER_CLIENTS = "(other)";
+	private static final long SWEEP_INTERVAL_NANOS = 1_000_000_000L;
+
+	private final GatewayConfig config;
+	private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+	private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+
+	// 메트릭
+	private final LongAdder admitted = new LongAdder();
+	private final Map<String, LongAdder> throttledByClient = new ConcurrentHashMap<>();
+
+	public RateLimiter(GatewayConfig config) {
+		this.config = config;
+	}
+
+	/**
+	 * 질의 1건에 대한 토큰을 소비한다. 토큰이 없으면 false (제한됨)
+	 */
+	public boolean tryAcquire(String clientId, String modelName) {
+		sweepIdle();
+		TokenBucket bucket = buckets.computeIfAbsent(clientId + "|" + modelName,
+				k -> new TokenBucket(config.rateLimitFor(clientId)));
+		if (bucket.tryAcquire()) {
+			admitted.increment();
+			return true;
+		}
+		LongAdder counter = throttledByClient.get(clientId);
+		if (counter == null) {
+			// 크기 확인과 추가 사이 경쟁으로 몇 개 넘을 수 있음
+			String key = throttledByClient.size() < MAX_TRACKED_CLIENTS ? clientId : OTHER_CLIENTS;
+			counter = throttledByClient.computeIfAbsent(key, k -> new LongAdder());
+		}
+		counter.increment();
+		return false;
+	}
+
+	// 1초에 한 번, 한 스레드만 유휴 버킷을 지움
+	// (지우는 순간 그 버킷을 쓰던 요청이 있으면 토큰 1개 정도가 덜 차감될 수 있음)
+	private void sweepIdle() {
+		long now = System.nanoTime();
+		long last = lastSweep.get();
+		if (now - last < SWEEP_INTERVAL_NANOS || !lastSweep.compareAndSet(last, now)) {
+			return;
+		}
+		buckets.values().removeIf(bucket -> bucket.idleSince(now));
+	}
+
+	// 메트릭 조회 (/metrics)
+	public JsonObject metrics() {
+		JsonObject obj = new JsonObject();
+		obj.addProperty("admitted", admitted.sum());
+		JsonObject throttled = new JsonObject();
+		long total = 0;
+		for (Map.Entry<String, LongAdder> e : throttledByClient.entrySet()) {
+			long n = e.getValue().sum();
+			throttled.addProperty(e.getKey(), n);
+			total += n;
+		}
+		obj.addProperty("throttled", total);
+		obj.add("throttledByClient", throttled);
+		return obj;
+	}
+
+	/**
+	 * 토큰 버킷 (GCRA)
+	 * - interval: 토큰 1개가 생기는 간격
+	 * - tolerance: 버스트 허용 구간 ((burst - 1) * interval)
+	 */
+	static class TokenBucket {
+		private final long intervalNanos;
+		private final long toleranceNanos;
+		private final AtomicLong tat;
+
+		TokenBucket(GatewayConfig.RateLimit limit) {
+			this.intervalNanos = (long) (1_000_000_000L / Math.max(limit.ratePerSec, 0.001));
+			this.toleranceNanos = intervalNanos * Math.max(limit.burst - 1, 0);
+			this.tat = new AtomicLong(System.nanoTime());
+		}
+
+		boolean tryAcquire() {
+			long now = System.nanoTime();
+			while (true) {
+				long cur = tat.get();
+				long base = cur - now > 0 ? cur : now;
+				if (base - now > toleranceNanos) {
+					return false;
+				}
+				if (tat.compareAndSet(cur, base + intervalNanos)) {
+					return true;
+				}
+			}
+		}
+
+		// 가득 찬 뒤로 빈 버킷을 다시 채우는 시간(tolerance + interval) 이상 지났는지
+		boolean idleSince(long now) {
+			return now - tat.get() >= toleranceNanos + intervalNanos;
+		}
+	}
+}
@@ -1,45 +1,88 @@
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import org.eclipse.jetty.client.HttpClient;
-import org.eclipse.jetty.client.api.ContentResponse;
-import org.eclipse.jetty.client.util.StringContentProvider;
-import org.eclipse.jetty.http.HttpHeader;
 import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
 import org.eclipse.jetty.servlet.ServletHandler;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
 public class SP_TEST {
 	private static final Map<String, String> dictionary = new HashMap<>();
 	private static final Set<String> stopwords = new HashSet<>();
 	private static final List<ModelInfo> models = new ArrayList<>();
+	private static GatewayConfig config;
+	private static ModelClient modelClient;
+	private static RateLimiter rateLimiter;
+	private static CoDelAdmission codel;
+	private static Stage cpuStage;
+	private static IoStage ioStage;
+	private static final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread t = new Thread(r, "deadline-timer");
+		t.setDaemon(true);
+		return t;
+	});
 
 	public static void main(String[] args) throws Exception {
 		loadDictionary("DICTIONARY.TXT");
 		loadStopwords("STOPWORD.TXT");
 		loadModels("MODELS.JSON");
+		config = GatewayConfig.load("GATEWAY.JSON");
+
+		// 모델 호출용 HttpClient는 한 번만 시작하여 재사용
+		modelClient = new ModelClient(config);
+		modelClient.start();
+
+		// 클라이언트별 속도 제한
+		rateLimiter = new RateLimiter(config);
+
+		// 처리 단계: CPU 단계(코어 수 스레드) + 모델 호출 I/O 단계(논블로킹, 모델별 공정 큐)
+		int cpuThreads = config.cpuThreads > 0 ? config.cpuThreads : Runtime.getRuntime().availableProcessors();
+		cpuStage = new Stage("cpu", cpuThreads, config.cpuQueueCapacity);
+		ioStage = new IoStage(modelClient, models, config.modelConcurrency, config.ioMaxPending);
+
+		// 스레드풀 큐 대기시간 기반 과부하 차단 (CoDel)
+		codel = new CoDelAdmission(config.codelTargetMs, config.codelIntervalMs);
+		Server server = new Server(codel.newThreadPool(config.maxThreads));
+		ServerConnector connector = new ServerConnector(server);
+		connector.setPort(8080);
+		server.addConnector(connector);
 
-		Server server = new Server(8080);
 		ServletHandler handler = new ServletHandler();
-		handler.addServletWithMapping(MainServlet.class, "/");
-		server.setHandler(handler);
+		handler.addServletWithMapping(MetricsServlet.class, "/metrics");
+		handler.addServletWithMapping(MainServlet.class, "/").setAsyncSupported(true);
+		server.setHandler(codel.wrap(handler));
 		server.start();
 		server.join();
 	}
@@ -49,6 +92,14 @@ public class SP_TEST {
 		String modelname;
 		String url;
 		List<ClassInfo> classes;
+		boolean hedge; // 요청 헤징 사용 여부 (선택)
+		List<String> replicas; // 헤지 요청을 보낼 replica URL 목록 (선택, 없으면 url 사용)
+		transient Map<String, String> labels; // code -> value (로드 시 생성)
+
+		String label(String code) {
+			String value = code != null ? labels.get(code) : null;
+			return value != null ? value : "unknown";
+		}
 	}
 
 	public static class ClassInfo {
@@ -56,80 +107,505 @@ public class SP_TEST {
 		String value;
 	}
 
-	// 메인 서블릿
+	// 질의별 처리 상태
+	static final String STATUS_OK = "ok";
+	static final String STATUS_TIMEOUT = "timeout";
+	static final String STATUS_CANCELLED = "cancelled";
+	static final String STATUS_ERROR = "error";
+	static final String STATUS_THROTTLED = "throttled";
+
+	// 응답 방식: 전체 결과를 한 번에 작성 / NDJSON 스트리밍 / 청크 JSON 배열 스트리밍
+	enum ResponseMode {
+		BUFFERED, NDJSON, ARRAY
+	}
+
+	// 메인 서블릿: 요청 본문 수신 후 CPU 단계로 넘기고 Jetty 스레드는 바로 반환 (비동기 서블릿)
 	public static class MainServlet extends HttpServlet {
 		@Override
 		protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws IOException {
-			Gson gson = new Gson();
-			JsonObject requestJson = gson.fromJson(new InputStreamReader(req.getInputStream()), JsonObject.class);
-			String modelName = requestJson.get("modelname").getAsString();
-			JsonArray queries = requestJson.getAsJsonArray("queries");
+			byte[] body = req.getInputStream().readAllBytes();
+
+			// 클라이언트 식별 (X-Client-Id 헤더, 없으면 접속 IP)
+			String clientId = req.getHeader("X-Client-Id");
+			if (clientId == null || clientId.isEmpty()) {
+				clientId = req.getRemoteAddr();
+			}
 
-			ModelInfo model = models.stream().filter(m -> m.modelname.equals(modelName)).findFirst().orElse(null);
+			// 스트리밍 응답: ?stream=ndjson 또는 Accept: application/x-ndjson, ?stream=array
+			ResponseMode mode = ResponseMode.BUFFERED;
+			String stream = req.getParameter("stream");
+			String accept = req.getHeader("Accept");
+			if ("ndjson".equals(stream) || (accept != null && accept.contains("application/x-ndjson"))) {
+				mode = ResponseMode.NDJSON;
+			} else if ("array".equals(stream)) {
+				mode = ResponseMode.ARRAY;
+			}
+
+			AsyncContext ctx = req.startAsync();
+			ctx.setTimeout(0); // 기한은 BatchJob 이 직접 관리
+			BatchJob job = new BatchJob(ctx, body, clientId, mode);
+			if (!cpuStage.trySubmit(job::parse)) {
+				job.fail(503, "{\"error\":\"Server busy\"}");
+			}
+		}
+	}
+
+	/**
+	 * 분류 요청 1건(질의 배치)의 처리 상태
+	 *
+	 * - CPU 단계: 요청 파싱, 속도 제한, 전처리, 라벨 매핑, 응답 작성
+	 * - I/O 단계: 모델 호출 (완료 콜백은 다시 CPU 단계에서 처리)
+	 * 한 요청에서 동시에 모델 호출 중인 질의는 batchParallelism 개로 제한한다.
+	 *
+	 * 스트리밍 모드에서는 질의를 본문에서 하나씩 읽고, 결과는 streamWindow 크기의 링 버퍼에 보관한다.
+	 * 앞선 결과가 모두 준비된 결과부터 순서대로 바로 전송하므로 배치 크기와 무관하게 메모리가 제한된다.
+	 *
+	 * 응답 쓰기는 this 락 안에서 하지 않는다. 락 안에서는 보낼 바이트를 대기열에 넣기만 하고,
+	 * 락을 놓은 뒤 비차단 출력(WriteListener)으로 쓸 수 있는 만큼만 보낸다. 느린 클라이언트 때문에
+	 * 출력이 막히면 컨테이너가 onWritePossible 로 나머지를 이어 보내므로 CPU 단계 스레드는 기다리지 않는다.
+	 */
+	static class BatchJob {
+		private final AsyncContext ctx;
+		private final byte[] body;
+		private final String clientId;
+		private final ResponseMode mode;
+		private final Gson gson = new Gson();
+
+		private ModelInfo model;
+		private JsonReader queryReader; // queries 배열 안에 위치한 리더 (질의를 필요할 때 하나씩 읽음)
+		private int total;
+		private int capacity; // 결과 보관 슬롯 수 (버퍼 모드는 전체, 스트리밍 모드는 streamWindow)
+		private String[] results;
+		private String[] statuses;
+		private CompletableFuture<?>[] calls;
+		private long deadline;
+		private ScheduledFuture<?> deadlineTimer;
+		private volatile ServletOutputStream out;
+		private final Object outLock = new Object(); // 실제 쓰기 직렬화 (this 보다 먼저 잡는다)
+		private boolean needFlush; // outLock 으로 동기화
+
+		// 아래 상태는 this 로 동기화
+		private int nextIndex; // 다음에 보낼 질의
+		private int written; // 스트리밍 모드에서 전송 완료한 결과 수
+		private int inFlight;
+		private int completed;
+		private boolean finished;
+		private final ArrayDeque<byte[]> pending = new ArrayDeque<>(); // 전송 대기 출력
+		private boolean closing; // 대기 출력을 모두 보내면 응답 완료
+		private boolean closed; // ctx.complete() 호출됨
+
+		BatchJob(AsyncContext ctx, byte[] body, String clientId, ResponseMode mode) {
+			this.ctx = ctx;
+			this.body = body;
+			this.clientId = clientId;
+			this.mode = mode;
+		}
+
+		// CPU 단계: 요청 JSON 검증
+		// 1차로 modelname, timeoutMs, 질의 수만 확인하고 (질의 문자열은 만들지 않음), 2차 리더를 queries 배열에 위치시킨다.
+		void parse() {
+			String modelName = null;
+			long budgetMs = config.defaultTimeoutMs;
+			try (JsonReader r = newReader()) {
+				r.beginObject();
+				while (r.hasNext()) {
+					switch (r.nextName()) {
+					case "modelname":
+						modelName = r.nextString();
+						break;
+					case "timeoutMs":
+						// 요청 전체 시간 예산 (클라이언트 지정 timeoutMs, 없으면 설정 기본값)
+						budgetMs = Math.min(r.nextLong(), config.maxTimeoutMs);
+						break;
+					case "queries":
+						r.beginArray();
+						while (r.hasNext()) {
+							JsonToken token = r.peek();
+							if (token != JsonToken.STRING && token != JsonToken.NUMBER) {
+								throw new IllegalStateException("query must be a string");
+							}
+							r.skipValue();
+							total++;
+						}
+						r.endArray();
+						break;
+					default:
+						r.skipValue();
+					}
+				}
+				queryReader = newReader();
+				queryReader.beginObject();
+				while (queryReader.hasNext() && !"queries".equals(queryReader.nextName())) {
+					queryReader.skipValue();
+				}
+				queryReader.beginArray();
+			} catch (IOException | RuntimeException e) {
+				fail(400, "{\"error\":\"Invalid request\"}");
+				return;
+			}
+			String name = modelName;
+			model = models.stream().filter(m -> m.modelname.equals(name)).findFirst().orElse(null);
 			if (model == null) {
-				resp.setStatus(400);
-				resp.getWriter().write("{\"error\":\"Model not found\"}");
+				fail(400, "{\"error\":\"Model not found\"}");
+				return;
+			}
+
+			capacity = mode == ResponseMode.BUFFERED ? total : Math.max(1, Math.min(total, config.streamWindow));
+			results = new String[capacity];
+			statuses = new String[capacity];
+			calls = new CompletableFuture<?>[capacity];
+			deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMs);
+			deadlineTimer = timer.schedule(() -> cpuStage.execute(this::onDeadline), budgetMs, TimeUnit.MILLISECONDS);
+			if (mode != ResponseMode.BUFFERED && !startStream()) {
 				return;
 			}
+			pump();
+		}
+
+		private JsonReader newReader() {
+			return new JsonReader(new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8));
+		}
 
-			List<String> results = new ArrayList<>();
-			for (JsonElement queryElem : queries) {
-				String query = queryElem.getAsString();
-				String processed = preprocess(query);
-				String code = requestModel(model.url, processed);
-				String value = model.classes.stream().filter(c -> c.code.equals(code)).map(c -> c.value).findFirst()
-						.orElse("unknown");
-				results.add(value);
+		// 동시 호출 한도(와 스트리밍 모드의 보관 슬롯) 안에서 다음 질의들을 보내고, 준비된 결과를 전송한다
+		private void pump() {
+			synchronized (this) {
+				int window = Math.max(1, config.batchParallelism);
+				boolean progress = true;
+				while (!finished && progress) {
+					progress = false;
+					while (!finished && inFlight < window && nextIndex < total && nextIndex - written < capacity) {
+						dispatch(nextIndex++, window);
+						progress = true;
+					}
+					if (mode != ResponseMode.BUFFERED && !finished) {
+						progress |= emitReady();
+					}
+				}
+				if (!finished && completed == total) {
+					finish();
+				}
 			}
+			flushOutput();
+		}
+
+		private void dispatch(int i, int window) {
+			String query;
+			try {
+				query = queryReader.nextString();
+			} catch (IOException e) {
+				done(i, null, STATUS_ERROR);
+				return;
+			}
+			long remaining = deadline - System.nanoTime();
+			if (remaining <= 0) {
+				done(i, null, STATUS_CANCELLED); // 시간 초과로 모델 호출 생략
+				return;
+			}
+			if (!rateLimiter.tryAcquire(clientId, model.modelname)) {
+				done(i, null, STATUS_THROTTLED);
+				return;
+			}
+			// 남은 시간을 남은 호출 회차(동시 호출 한도 단위) 수로 나누어 이번 질의의 예산으로 사용
+			int waves = (total - i + window - 1) / window;
+			long queryDeadline = System.nanoTime() + remaining / waves;
+
+			String processed = preprocess(query);
+			inFlight++;
+			CompletableFuture<String> call = ioStage.submit(model, clientId, config.weightFor(clientId), processed,
+					queryDeadline);
+			calls[i % capacity] = call;
+			call.whenComplete((code, err) -> cpuStage.execute(() -> onResult(i, code, err)));
+		}
+
+		// CPU 단계: 모델 응답 처리 (라벨 매핑)
+		private void onResult(int i, String code, Throwable err) {
+			synchronized (this) {
+				if (finished || statuses[i % capacity] != null) {
+					return;
+				}
+				inFlight--;
+				if (err == null) {
+					done(i, code, STATUS_OK);
+				} else {
+					Throwable cause = err instanceof CompletionException && err.getCause() != null ? err.getCause()
+							: err;
+					done(i, null, cause instanceof TimeoutException ? STATUS_TIMEOUT : STATUS_ERROR);
+				}
+			}
+			pump();
+		}
+
+		// 요청 전체 기한 초과: 진행 중인 호출은 중단(timeout), 시작 전 질의는 생략(cancelled)
+		private void onDeadline() {
+			synchronized (this) {
+				if (finished) {
+					return;
+				}
+				finished = true; // 이후 도착하는 모델 응답은 무시
+				int started = nextIndex;
+				for (int i = written; i < started; i++) {
+					int slot = i % capacity;
+					if (statuses[slot] == null) {
+						CompletableFuture<?> call = calls[slot]; // done()이 비우므로 먼저 꺼내 둠
+						done(i, null, call != null ? STATUS_TIMEOUT : STATUS_CANCELLED);
+						if (call != null) {
+							call.cancel(true);
+						}
+					}
+				}
+				if (mode == ResponseMode.BUFFERED) {
+					for (int i = started; i < total; i++) {
+						done(i, null, STATUS_CANCELLED);
+					}
+				} else {
+					// 스트리밍: 보관 중인 결과를 보낸 뒤, 시작하지 못한 질의는 바로 cancelled 로 전송
+					emitReady();
+					StringBuilder lines = new StringBuilder();
+					for (int i = started; i < total; i++) {
+						appendLine(lines, i, model.label(null), STATUS_CANCELLED);
+					}
+					enqueue(lines);
+				}
+				finish();
+			}
+			flushOutput();
+		}
+
+		private void done(int i, String code, String status) {
+			int slot = i % capacity;
+			results[slot] = model.label(code);
+			statuses[slot] = status;
+			calls[slot] = null;
+			completed++;
+		}
+
+		// 스트리밍 응답 시작 (헤더는 첫 출력과 함께 전송)
+		private boolean startStream() {
+			try {
+				openOutput(200, mode == ResponseMode.NDJSON ? "application/x-ndjson" : "application/json");
+				synchronized (this) {
+					if (mode == ResponseMode.ARRAY) {
+						pending.add(new byte[] { '[' });
+					}
+				}
+				return true;
+			} catch (IOException | IllegalStateException e) {
+				synchronized (this) {
+					finished = true;
+					closed = true;
+				}
+				ctx.complete();
+				return false;
+			}
+		}
+
+		// 응답 헤더 설정 후 비차단 출력으로 전환 (쓰기 전이므로 락 안에서 호출해도 된다)
+		private void openOutput(int status, String contentType) throws IOException {
+			HttpServletResponse resp = (HttpServletResponse) ctx.getResponse();
+			resp.setStatus(status);
+			resp.setContentType(contentType);
+			resp.setCharacterEncoding("UTF-8");
+			needFlush = true; // 결과가 늦게 나와도 헤더는 먼저 보낸다
+			out = resp.getOutputStream();
+			out.setWriteListener(new WriteListener() {
+				@Override
+				public void onWritePossible() {
+					flushOutput();
+				}
+
+				@Override
+				public void onError(Throwable t) {
+					synchronized (BatchJob.this) {
+						abort();
+					}
+				}
+			});
+		}
+
+		// 앞선 결과가 모두 준비된 결과부터 순서대로 전송 대기열에 넣음 (this 락 안에서 호출)
+		private boolean emitReady() {
+			int before = written;
+			StringBuilder lines = new StringBuilder();
+			while (written < nextIndex && statuses[written % capacity] != null) {
+				int slot = written % capacity;
+				appendLine(lines, written, results[slot], statuses[slot]);
+				results[slot] = null;
+				statuses[slot] = null;
+				written++;
+			}
+			enqueue(lines);
+			return written > before;
+		}
+
+		private void appendLine(StringBuilder lines, int i, String result, String status) {
+			if (mode == ResponseMode.NDJSON) {
+				lines.append("{\"index\":").append(i).append(",\"result\":").append(gson.toJson(result))
+						.append(",\"status\":\"").append(status).append("\"}\n");
+			} else {
+				lines.append(i > 0 ? "," : "").append("{\"result\":").append(gson.toJson(result))
+						.append(",\"status\":\"").append(status).append("\"}");
+			}
+		}
+
+		// this 락 안에서 호출
+		private void enqueue(CharSequence text) {
+			if (text.length() > 0 && !closed) {
+				pending.add(text.toString().getBytes(StandardCharsets.UTF_8));
+			}
+		}
+
+		/**
+		 * 대기 중인 출력을 막히지 않는 만큼 전송 (this 락 밖에서 호출)
+		 * isReady()가 false면 바로 반환하고, 쓸 수 있게 되면 컨테이너가 onWritePossible 로 다시 호출한다.
+		 * 대기열을 모두 보내고 flush까지 끝났는데 closing 이면 응답을 완료한다.
+		 */
+		private void flushOutput() {
+			if (out == null) {
+				return;
+			}
+			synchronized (outLock) {
+				try {
+					while (out.isReady()) {
+						byte[] data;
+						boolean complete = false;
+						synchronized (this) {
+							if (closed) {
+								return;
+							}
+							data = pending.poll();
+							if (data == null && !needFlush && closing) {
+								closed = complete = true;
+							}
+						}
+						if (data != null) {
+							out.write(data);
+							needFlush = true;
+						} else if (needFlush) {
+							needFlush = false;
+							out.flush();
+						} else {
+							if (complete) {
+								ctx.complete();
+							}
+							return;
+						}
+					}
+				} catch (IOException | IllegalStateException e) {
+					// 클라이언트 연결 종료
+					synchronized (this) {
+						abort();
+					}
+				}
+			}
+		}
+
+		// 클라이언트 연결 종료 시 진행 중인 호출 중단 (this 락 안에서 호출)
+		private void abort() {
+			finished = true;
+			pending.clear();
+			for (CompletableFuture<?> call : calls) {
+				if (call != null) {
+					call.cancel(true);
+				}
+			}
+			if (deadlineTimer != null) {
+				deadlineTimer.cancel(false);
+			}
+			if (!closed) {
+				closed = true;
+				ctx.complete();
+			}
+		}
+
+		// CPU 단계: 응답 마무리 (this 락 안에서 호출, 전송은 호출자가 락을 놓은 뒤 flushOutput 으로)
+		private void finish() {
+			finished = true;
+			if (deadlineTimer != null) {
+				deadlineTimer.cancel(false);
+			}
+			if (mode != ResponseMode.BUFFERED) {
+				if (mode == ResponseMode.ARRAY) {
+					enqueue("]");
+				}
+				closing = true;
+				return;
+			}
+
 			JsonObject responseJson = new JsonObject();
 			JsonArray resArr = new JsonArray();
 			for (String r : results)
 				resArr.add(r);
 			responseJson.add("results", resArr);
+			JsonArray statusArr = new JsonArray();
+			for (String st : statuses)
+				statusArr.add(st);
+			responseJson.add("statuses", statusArr);
+			boolean partial = false;
+			boolean allThrottled = statuses.length > 0;
+			for (String st : statuses) {
+				partial |= !STATUS_OK.equals(st);
+				allThrottled &= STATUS_THROTTLED.equals(st);
+			}
+			responseJson.addProperty("partial", partial);
 
-			resp.setContentType("application/json");
-			resp.getWriter().write(gson.toJson(responseJson));
+			// 모든 질의가 속도 제한에 걸리면 429
+			try {
+				openOutput(allThrottled ? 429 : 200, "application/json");
+			} catch (IOException | IllegalStateException e) {
+				abort();
+				return;
+			}
+			enqueue(gson.toJson(responseJson));
+			closing = true;
 		}
 
-		// 문장 전처리 (토큰화, 임베딩, 불용어 제거)
-		private String preprocess(String sentence) {
-			String[] tokens = sentence.trim().split("\\s+");
-			List<String> vectors = new ArrayList<>();
-			for (String token : tokens) {
-				String key = token.toLowerCase();
-				String vector = dictionary.get(key);
-				if (vector != null && !stopwords.contains(vector)) {
-					vectors.add(vector);
-				}
-			}
-			return String.join(" ", vectors);
+		void fail(int status, String json) {
+			complete(status, json);
 		}
 
-		// 모델 서버에 HTTP POST 요청 (Jetty 9 HttpClient)
-		private String requestModel(String url, String processed) {
-			Gson gson = new Gson(); // Gson 인스턴스
-			HttpClient httpClient = new HttpClient(); // Jetty HttpClient 생성
+		private void complete(int status, String json) {
 			try {
-				// HttpClient 시작
-				httpClient.start();
-				// JSON 바디 생성
-				String json = String.format("{\"query\":\"%s\"}", processed);
-
-				// POST 요청 생성 및 전송
-				ContentResponse response = httpClient.POST(url).header(HttpHeader.CONTENT_TYPE, "application/json") // Content-Type
-																													// 지정
-						.content(new StringContentProvider(json), "application/json") // JSON 바디 설정
-						.send(); // 동기 전송
-
-				// 응답 코드 및 바디 처리
-				String responseBody = response.getContentAsString();
-				JsonObject res = gson.fromJson(responseBody, JsonObject.class);
-				httpClient.stop(); // HttpClient 종료 (실전에서는 재사용 권장)
-				return res.get("result").getAsString(); // 결과 추출
-			} catch (Exception e) {
-				e.printStackTrace();
-			}
-			return null;
+				HttpServletResponse resp = (HttpServletResponse) ctx.getResponse();
+				resp.setStatus(status);
+				resp.setContentType("application/json");
+				resp.getWriter().write(json);
+			} catch (IOException e) {
+				// 클라이언트 연결 종료 등
+			} finally {
+				ctx.complete();
+			}
+		}
+	}
+
+	// 문장 전처리 (토큰화, 임베딩, 불용어 제거)
+	static String preprocess(String sentence) {
+		String[] tokens = sentence.trim().split("\\s+");
+		List<String> vectors = new ArrayList<>();
+		for (String token : tokens) {
+			String key = token.toLowerCase();
+			String vector = dictionary.get(key);
+			if (vector != null && !stopwords.contains(vector)) {
+				vectors.add(vector);
+			}
+		}
+		return String.join(" ", vectors);
+	}
+
+	// 메트릭 조회 서블릿 (GET /metrics)
+	public static class MetricsServlet extends HttpServlet {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+			JsonObject metrics = modelClient.metrics();
+			metrics.add("rateLimit", rateLimiter.metrics());
+			JsonObject stages = new JsonObject();
+			stages.add("cpu", cpuStage.metrics());
+			stages.add("io", ioStage.metrics());
+			metrics.add("stages", stages);
+			metrics.add("codel", codel.metrics());
+			resp.setContentType("application/json");
+			resp.getWriter().write(new Gson().toJson(metrics));
 		}
 	}
 
@@ -161,7 +637,12 @@ public class SP_TEST {
 			JsonObject obj = gson.fromJson(reader, JsonObject.class);
 			JsonArray arr = obj.getAsJsonArray("models");
 			for (JsonElement e : arr) {
-				models.add(gson.fromJson(e, ModelInfo.class));
+				ModelInfo model = gson.fromJson(e, ModelInfo.class);
+				model.labels = new HashMap<>();
+				for (ClassInfo c : model.classes) {
+					model.labels.put(c.code, c.value);
+				}
+				models.add(model);
 			}
 		}
 	}
@@ -0,0 +1,73 @@
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.gson.JsonObject;
+
+/**
+ * CPU 작업 단계 (고정 스레드 + 제한된 큐)
+ *
+ * - trySubmit: 새 요청 접수용. 큐가 가득 차면 거절하여 호출자가 503으로 응답한다.
+ * - execute: 이미 접수된 요청의 후속 작업용. 큐가 가득 차면 호출 스레드에서 바로 실행한다.
+ * 큐 깊이, 큐 대기시간, 처리시간을 측정한다.
+ */
+public class Stage {
+	private final String name;
+	private final ThreadPoolExecutor executor;
+
+	// 메트릭
+	private final LongAdder completed = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder waitNanos = new LongAdder();
+	private final LongAdder serviceNanos = new LongAdder();
+
+	public Stage(String name, int threads, int queueCapacity) {
+		this.name = name;
+		AtomicInteger seq = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), r -> {
+					Thread t = new Thread(r, name + "-" + seq.incrementAndGet());
+					t.setDaemon(true);
+					return t;
+				}, new ThreadPoolExecutor.CallerRunsPolicy());
+	}
+
+	public boolean trySubmit(Runnable task) {
+		if (executor.getQueue().remainingCapacity() == 0) {
+			rejected.increment();
+			return false;
+		}
+		execute(task);
+		return true;
+	}
+
+	public void execute(Runnable task) {
+		long enqueued = System.nanoTime();
+		executor.execute(() -> {
+			long start = System.nanoTime();
+			waitNanos.add(start - enqueued);
+			try {
+				task.run();
+			} finally {
+				serviceNanos.add(System.nanoTime() - start);
+				completed.increment();
+			}
+		});
+	}
+
+	public JsonObject metrics() {
+		JsonObject obj = new JsonObject();
+		long done = completed.sum();
+		obj.addProperty("name", name);
+		obj.addProperty("threads", executor.getMaximumPoolSize());
+		obj.addProperty("queueDepth", executor.getQueue().size());
+		obj.addProperty("active", executor.getActiveCount());
+		obj.addProperty("completed", done);
+		obj.addProperty("rejected", rejected.sum());
+		obj.addProperty("avgQueueWaitMs", done == 0 ? 0.0 : waitNanos.sum() / 1_000_000.0 / done);
+		obj.addProperty("avgServiceMs", done == 0 ? 0.0 : serviceNanos.sum() / 1_000_000.0 / done);
+		return obj;
+	}
+}